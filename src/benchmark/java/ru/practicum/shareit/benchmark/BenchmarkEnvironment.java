@@ -0,0 +1,194 @@
+package ru.practicum.shareit.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Общая подготовка стенда для бенчмарков: H2 в памяти, заполненная через JDBC, и контекст приложения поверх неё.
+ * Данные вставляются до старта контекста, чтобы in-memory индексы (поиск, доступность) прогревались на них.
+ * Для объёмов, которые не помещаются в память, {@link #onDisk} кладёт базу в target/benchmark и заполняет её
+ * один раз: повторные запуски переиспользуют данные.
+ */
+public final class BenchmarkEnvironment {
+    static final String[] WORDS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "camera", "projector",
+            "guitar", "grill", "scooter", "telescope"};
+
+    private static final String USER = "sa";
+    private static final int BATCH_SIZE = 1_000;
+
+    private final String url;
+    private final int users;
+    private final int itemsPerUser;
+    private final int bookingsPerItem;
+
+    public BenchmarkEnvironment(String database, int users, int itemsPerUser, int bookingsPerItem) {
+        this(users, itemsPerUser, bookingsPerItem, "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+    }
+
+    private BenchmarkEnvironment(int users, int itemsPerUser, int bookingsPerItem, String url) {
+        this.url = url;
+        this.users = users;
+        this.itemsPerUser = itemsPerUser;
+        this.bookingsPerItem = bookingsPerItem;
+    }
+
+    public static BenchmarkEnvironment onDisk(String database, int users, int itemsPerUser, int bookingsPerItem) {
+        String name = database + "_" + users + "x" + itemsPerUser + "x" + bookingsPerItem;
+        return new BenchmarkEnvironment(users, itemsPerUser, bookingsPerItem, "jdbc:h2:file:./target/benchmark/" + name);
+    }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, USER, "");
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getItems() {
+        return users * itemsPerUser;
+    }
+
+    // Пользователи и предметы получают id по порядку вставки: владелец предмета i — пользователь (i - 1) / itemsPerUser + 1
+    public long ownerOf(long itemId) {
+        return (itemId - 1) / itemsPerUser + 1;
+    }
+
+    // Каждый десятый предмет недоступен для бронирования
+    public boolean isAvailable(long itemId) {
+        return itemId % 10 != 0;
+    }
+
+    public void seed() {
+        Flyway.configure()
+                .dataSource(url, USER, "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection connection = connect()) {
+            if (isSeeded(connection)) {
+                return;
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO users (name, email) VALUES (?, ?)")) {
+                for (int i = 1; i <= users; i++) {
+                    statement.setString(1, "user" + i);
+                    statement.setString(2, "user" + i + "@bench.local");
+                    addBatch(statement, i);
+                }
+                statement.executeBatch();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, ?, ?)")) {
+                for (long itemId = 1; itemId <= getItems(); itemId++) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    statement.setLong(1, itemId);
+                    statement.setString(2, word + " " + itemId);
+                    statement.setString(3, "Rent a " + word + " from " + WORDS[random.nextInt(WORDS.length)] + " owner");
+                    statement.setBoolean(4, isAvailable(itemId));
+                    statement.setLong(5, ownerOf(itemId));
+                    addBatch(statement, itemId);
+                }
+                statement.executeBatch();
+            }
+            // id предметов заданы явно, последовательность сдвигается за них (блок Hibernate — (nextval - 50, nextval])
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER SEQUENCE items_seq RESTART WITH " + (getItems() + 50));
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, phase, owner_id) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                long count = 0;
+                // Бронирования предмета идут подряд без пересечений: половина в прошлом, половина в будущем
+                LocalDateTime first = now.minusDays(bookingsPerItem / 2L * 3);
+                for (long itemId = 1; itemId <= getItems(); itemId++) {
+                    for (int j = 0; j < bookingsPerItem; j++) {
+                        LocalDateTime start = first.plusDays(j * 3L);
+                        statement.setTimestamp(1, Timestamp.valueOf(start));
+                        statement.setTimestamp(2, Timestamp.valueOf(start.plusDays(2)));
+                        statement.setLong(3, itemId);
+                        statement.setLong(4, bookerFor(itemId, random));
+                        statement.setString(5, j % 7 == 0 ? "REJECTED" : j % 5 == 0 ? "WAITING" : "APPROVED");
+                        statement.setString(6, start.plusDays(2).isBefore(now) ? "PAST"
+                                : start.isBefore(now) ? "CURRENT" : "FUTURE");
+                        statement.setLong(7, ownerOf(itemId));
+                        addBatch(statement, ++count);
+                    }
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось заполнить базу бенчмарка", e);
+        }
+    }
+
+    public ConfigurableApplicationContext start(WebApplicationType webApplicationType,
+                                                Map<String, Object> extraProperties) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url);
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        properties.put("logging.level.org.springframework.transaction.interceptor", "WARN");
+        properties.put("logging.level.org.springframework.orm.jpa.JpaTransactionManager", "WARN");
+        properties.put("logging.level.ru.practicum.shareit", "WARN");
+        properties.putAll(extraProperties);
+        // Аргументы командной строки приоритетнее application-test.properties, в отличие от default properties
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .web(webApplicationType)
+                .run(args);
+    }
+
+    public long bookerFor(long itemId, Random random) {
+        long booker = random.nextInt(users) + 1;
+        return booker == ownerOf(itemId) ? booker % users + 1 : booker;
+    }
+
+    public long randomAvailableItem(Random random) {
+        long itemId = random.nextInt(getItems()) + 1;
+        return isAvailable(itemId) ? itemId : itemId - 1;
+    }
+
+    private static boolean isSeeded(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            resultSet.next();
+            return resultSet.getLong(1) > 0;
+        }
+    }
+
+    // Фиксация каждого пакета: транзакция на миллионы строк не держит весь журнал отмены в памяти
+    private static void addBatch(PreparedStatement statement, long count) throws SQLException {
+        statement.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            statement.executeBatch();
+            statement.getConnection().commit();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списки бронирований арендатора и владельца по каждому BookingState: offset- и keyset-страницы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingListingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param("200")
+    private int users;
+    @Param("10")
+    private int itemsPerUser;
+    @Param("20")
+    private int bookingsPerItem;
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private BookingState state;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment("listing_benchmark", users, itemsPerUser,
+                bookingsPerItem);
+        environment.seed();
+        context = environment.start(WebApplicationType.NONE, Map.of());
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getUserBookings() {
+        return bookingService.getUserBookings(randomUser(), state, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getUserBookingsKeyset() {
+        return bookingService.getUserBookings(randomUser(), state, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getOwnerBookings() {
+        return bookingService.getOwnerBookings(randomUser(), state, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getOwnerBookingsKeyset() {
+        return bookingService.getOwnerBookings(randomUser(), state, null, PAGE_SIZE);
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+}
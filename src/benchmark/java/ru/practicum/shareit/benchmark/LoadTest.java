@@ -0,0 +1,233 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест REST-слоя со смешанным профилем трафика.
+ * <p>
+ * Поднимает приложение на случайном порту поверх заполненной H2 (или бьёт в уже запущенный экземпляр через
+ * url=...) и подаёт запросы с постоянной интенсивностью (открытая модель): задержка считается от запланированного
+ * момента отправки, поэтому очередь перед сервером попадает в перцентили, а не прячется. Сценарии:
+ * browse — поиск и карточка предмета, book — всплески бронирований горячих предметов,
+ * dashboard — списки владельца и арендатора. threads=platform,virtual прогоняет один и тот же профиль
+ * нагрузки на потоках Tomcat и в режиме virtual-threads (одинаковый пул соединений) для сравнения.
+ * Параметры задаются как key=value, свойства приложения — как --key=value:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.practicum.shareit.benchmark.LoadTest \
+ *     -Dbenchmark.args="rate=300 duration=60 browse=60 book=15 dashboard=25 threads=platform,virtual"
+ * </pre>
+ */
+public final class LoadTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    private final Map<String, String> options;
+    private final String threadMode;
+    private final BenchmarkEnvironment environment;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final LocalDateTime bookingHorizon = LocalDateTime.now().plusYears(1);
+    private String baseUrl;
+    private volatile boolean recording;
+
+    private LoadTest(Map<String, String> options, String threadMode) {
+        this.options = options;
+        this.threadMode = threadMode;
+        this.environment = new BenchmarkEnvironment("load_test_" + threadMode, intOption("users", 500),
+                intOption("itemsPerUser", 10), intOption("bookingsPerItem", 20));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Arrays.stream(args)
+                .map(arg -> arg.split("=", 2))
+                .forEach(pair -> options.put(pair[0], pair.length > 1 ? pair[1] : "true"));
+        for (String threadMode : options.getOrDefault("threads", "platform").split(",")) {
+            new LoadTest(options, threadMode).run();
+        }
+    }
+
+    private void run() throws InterruptedException {
+        ConfigurableApplicationContext context = null;
+        if (options.containsKey("url")) {
+            baseUrl = options.get("url");
+        } else {
+            environment.seed();
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("server.port", "0");
+            properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+            if ("virtual".equals(threadMode)) {
+                properties.put("spring.profiles.active", "test,virtual-threads");
+            }
+            options.forEach((key, value) -> {
+                if (key.startsWith("--")) {
+                    properties.put(key.substring(2), value);
+                }
+            });
+            context = environment.start(WebApplicationType.SERVLET, properties);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        int rate = intOption("rate", 200);
+        int warmupSeconds = intOption("warmup", 10);
+        int durationSeconds = intOption("duration", 60);
+        int[] weights = {intOption("browse", 60), intOption("book", 15), intOption("dashboard", 25)};
+        int totalWeight = Arrays.stream(weights).sum();
+        System.out.printf("Нагрузка на %s (%s): %d запросов/с, прогрев %d с, замер %d с, "
+                        + "browse/book/dashboard = %d/%d/%d%n", baseUrl, threadMode, rate, warmupSeconds, durationSeconds,
+                weights[0], weights[1], weights[2]);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long recordFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = recordFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += intervalNanos) {
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                recording = intended >= recordFrom;
+                long scheduledAt = intended;
+                int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+                if (pick < weights[0]) {
+                    executor.execute(() -> browse(scheduledAt));
+                } else if (pick < weights[0] + weights[1]) {
+                    executor.execute(() -> book(scheduledAt));
+                } else {
+                    executor.execute(() -> dashboard(scheduledAt));
+                }
+            }
+        }
+
+        report(durationSeconds);
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private void browse(long scheduledAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextInt(environment.getUsers()) + 1;
+        String word = BenchmarkEnvironment.WORDS[random.nextInt(BenchmarkEnvironment.WORDS.length)];
+        call("GET /items/search", "GET", "/items/search?text=" + word.substring(0, 3) + "&from=0&size=20", userId,
+                null, scheduledAt);
+        long itemId = random.nextInt(environment.getItems()) + 1;
+        call("GET /items/{id}", "GET", "/items/" + itemId, userId, null, System.nanoTime());
+    }
+
+    // Всплески на небольшом наборе горячих предметов: часть запросов пересекается и ожидаемо получает 4xx
+    private void book(long scheduledAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int hotItems = intOption("hotItems", 20);
+        long itemId = environment.randomAvailableItem(random) % hotItems + 1;
+        if (!environment.isAvailable(itemId)) {
+            itemId--;
+        }
+        LocalDateTime startTime = bookingHorizon.plusHours(random.nextInt(intOption("slots", 10_000)));
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}", itemId, startTime,
+                startTime.plusMinutes(30 + random.nextInt(120)));
+        call("POST /bookings", "POST", "/bookings", environment.bookerFor(itemId, random), body, scheduledAt);
+    }
+
+    private void dashboard(long scheduledAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextInt(environment.getUsers()) + 1;
+        String state = STATES[random.nextInt(STATES.length)];
+        call("GET /bookings/owner", "GET", "/bookings/owner?state=" + state + "&from=0&size=20", userId, null,
+                scheduledAt);
+        call("GET /items", "GET", "/items", userId, null, System.nanoTime());
+        call("GET /bookings", "GET", "/bookings?state=" + state + "&from=0&size=20", userId, null,
+                System.nanoTime());
+        call("GET /users/{id}", "GET", "/users/" + userId, userId, null, System.nanoTime());
+    }
+
+    private void call(String endpoint, String method, String path, long userId, String body, long scheduledAt) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header(USER_ID_HEADER, String.valueOf(userId));
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        int status;
+        try {
+            status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (recording) {
+            stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(System.nanoTime() - scheduledAt,
+                    status);
+        }
+    }
+
+    private void report(int durationSeconds) {
+        System.out.printf("%n%-22s %8s %8s %9s %9s %9s %9s %7s %7s%n", "endpoint", "count", "rps", "p50 ms",
+                "p99 ms", "p999 ms", "max ms", "4xx %", "err %");
+        new TreeMap<>(stats).forEach((endpoint, endpointStats) -> endpointStats.print(endpoint, durationSeconds));
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static final class EndpointStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int clientErrors;
+        private int errors;
+
+        synchronized void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 400 && status < 500) {
+                clientErrors++;
+            } else if (status < 200 || status >= 500) {
+                errors++;
+            }
+        }
+
+        synchronized void print(String endpoint, int durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-22s %8d %8.1f %9.2f %9.2f %9.2f %9.2f %7.2f %7.2f%n", endpoint, count,
+                    (double) count / durationSeconds, millis(sorted, 0.50), millis(sorted, 0.99),
+                    millis(sorted, 0.999), millis(sorted, 1.0), 100.0 * clientErrors / count, 100.0 * errors / count);
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Первая страница списка владельца на 10 млн бронирований (50 000 владельцев по 10 предметов и 20 бронирований):
+ * фильтр через соединение с items по items.owner_id против денормализованного bookings.owner_id с индексами
+ * (owner_id, [status,] start_date DESC, id DESC). Запросы идут напрямую через JDBC, чтобы сравнивались только
+ * планы; перед замером оба плана печатаются. База на диске заполняется при первом запуске (несколько минут):
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="OwnerListingPlanBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OwnerListingPlanBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final String JOIN_ON_ITEM_OWNER = "SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id "
+            + "WHERE i.owner_id = ?%s ORDER BY b.start_date DESC, b.id DESC FETCH FIRST " + PAGE_SIZE + " ROWS ONLY";
+    private static final String DENORMALIZED_OWNER = "SELECT b.* FROM bookings b "
+            + "WHERE b.owner_id = ?%s ORDER BY b.start_date DESC, b.id DESC FETCH FIRST " + PAGE_SIZE + " ROWS ONLY";
+
+    @Param("50000")
+    private int users;
+    @Param("10")
+    private int itemsPerUser;
+    @Param("20")
+    private int bookingsPerItem;
+    // ALL — без фильтра по статусу
+    @Param({"ALL", "WAITING"})
+    private String status;
+
+    private Connection connection;
+    private PreparedStatement joinOnItemOwner;
+    private PreparedStatement denormalizedOwner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkEnvironment environment = BenchmarkEnvironment.onDisk("owner_listing_plans", users, itemsPerUser,
+                bookingsPerItem);
+        environment.seed();
+        connection = environment.connect();
+        String statusFilter = "ALL".equals(status) ? "" : " AND b.status = '" + status + "'";
+        String joinSql = String.format(JOIN_ON_ITEM_OWNER, statusFilter);
+        String denormalizedSql = String.format(DENORMALIZED_OWNER, statusFilter);
+        System.out.println("\nПлан через items:\n" + explain(joinSql.replace("?", "1")));
+        System.out.println("План по bookings.owner_id:\n" + explain(denormalizedSql.replace("?", "1")));
+        joinOnItemOwner = connection.prepareStatement(joinSql);
+        denormalizedOwner = connection.prepareStatement(denormalizedSql);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int joinOnItemOwner() throws SQLException {
+        return firstPage(joinOnItemOwner);
+    }
+
+    @Benchmark
+    public int denormalizedOwnerId() throws SQLException {
+        return firstPage(denormalizedOwner);
+    }
+
+    private int firstPage(PreparedStatement statement) throws SQLException {
+        statement.setLong(1, ThreadLocalRandom.current().nextInt(users) + 1);
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Проверка отсечения секций bookings (PostgreSQL, миграция V11) для горячих запросов BookingRepository.
+ * <p>
+ * Для каждого запроса выполняет EXPLAIN с параметрами, как их передаёт Hibernate, и печатает, сколько секций
+ * осталось в плане. Отсечение возможно только там, где есть граница по start_date: следующее бронирование,
+ * переход фаз, проверки пересечений, keyset-страницы и списки CURRENT/FUTURE. Списки по владельцу, заказчику и
+ * статусу без такой границы обходят индекс каждой секции (Merge Append по start_date DESC), это выводится справочно. Если запрос из
+ * первой группы не отсёк ни одной секции, код выхода ненулевой. Параметры задаются как key=value:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=ru.practicum.shareit.benchmark.PartitionPruningCheck \
+ *     -Dbenchmark.args="url=jdbc:postgresql://localhost:5432/shareit user=postgres password=12345"
+ * </pre>
+ */
+public final class PartitionPruningCheck {
+    private static final Pattern PARTITION = Pattern.compile("\\bon (bookings_(?:p\\d{6}|default))\\b");
+    private static final Pattern SUBPLANS_REMOVED = Pattern.compile("Subplans Removed: (\\d+)");
+
+    private final Connection connection;
+    private final int partitions;
+    private boolean failed;
+
+    private PartitionPruningCheck(Connection connection) throws SQLException {
+        this.connection = connection;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'bookings'::regclass");
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            this.partitions = resultSet.getInt(1);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        Arrays.stream(args)
+                .map(arg -> arg.split("=", 2))
+                .forEach(pair -> options.put(pair[0], pair.length > 1 ? pair[1] : "true"));
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("url", "jdbc:postgresql://localhost:5432/shareit"),
+                options.getOrDefault("user", "postgres"), options.getOrDefault("password", ""))) {
+            PartitionPruningCheck check = new PartitionPruningCheck(connection);
+            check.run();
+            if (check.failed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private void run() throws SQLException {
+        long itemId;
+        long ownerId;
+        long bookerId;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT item_id, owner_id, booker_id FROM bookings ORDER BY start_date DESC LIMIT 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                throw new IllegalStateException("В bookings нет строк: заполните базу перед проверкой");
+            }
+            itemId = resultSet.getLong(1);
+            ownerId = resultSet.getLong(2);
+            bookerId = resultSet.getLong(3);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp weekLater = Timestamp.valueOf(LocalDateTime.now().plusWeeks(1));
+        Timestamp monthAgo = Timestamp.valueOf(LocalDateTime.now().minusMonths(1));
+
+        System.out.printf("Секций в bookings: %d%n%n%-34s %8s %8s  %s%n", partitions, "query", "scanned", "removed",
+                "result");
+        // Запросы с границей по start_date: секции вне границы должны отсекаться
+        check("findNextBookingForItem", true,
+                "SELECT b.id FROM bookings b WHERE b.item_id = ? AND b.status = 'APPROVED' AND b.start_date > ? "
+                        + "ORDER BY b.start_date LIMIT 1", itemId, now);
+        check("findIdsStartedBefore", true,
+                "SELECT b.id FROM bookings b WHERE b.phase = 'FUTURE' AND b.start_date < ? AND b.end_date >= ? "
+                        + "LIMIT 1000", now, now);
+        check("existsOverlappingBookings", true,
+                "SELECT COUNT(b.id) > 0 FROM bookings b WHERE b.item_id = ? AND b.status IN ('APPROVED', 'WAITING') "
+                        + "AND ? < b.end_date AND ? > b.start_date", itemId, now, weekLater);
+        check("findActiveIntervals", true,
+                "SELECT b.id FROM bookings b WHERE b.item_id IN (?) AND b.status IN ('APPROVED', 'WAITING') "
+                        + "AND b.start_date < ? AND b.end_date > ? ORDER BY b.item_id, b.start_date",
+                itemId, weekLater, now);
+        check("findKeysetPage (owner, cursor)", true,
+                "SELECT b.id FROM bookings b WHERE b.owner_id = ? AND (b.start_date < ? "
+                        + "OR b.start_date = ? AND b.id < ?) ORDER BY b.start_date DESC, b.id DESC LIMIT 20",
+                ownerId, monthAgo, monthAgo, Long.MAX_VALUE);
+        check("findByOwnerId... (CURRENT)", true,
+                "SELECT b.id FROM bookings b WHERE b.owner_id = ? AND b.phase IN ('FUTURE', 'CURRENT') "
+                        + "AND b.start_date < ? AND b.end_date > ? ORDER BY b.start_date DESC, b.id DESC LIMIT 20",
+                ownerId, now, now);
+        check("findByBookerId... (FUTURE)", true,
+                "SELECT b.id FROM bookings b WHERE b.booker_id = ? AND b.phase = 'FUTURE' AND b.start_date > ? "
+                        + "ORDER BY b.start_date DESC, b.id DESC LIMIT 20", bookerId, now);
+        // Без границы по start_date: обход индекса каждой секции
+        check("findByOwnerId (ALL)", false,
+                "SELECT b.id FROM bookings b WHERE b.owner_id = ? ORDER BY b.start_date DESC, b.id DESC LIMIT 20",
+                ownerId);
+        check("findByBookerId... (PAST)", false,
+                "SELECT b.id FROM bookings b WHERE b.booker_id = ? AND b.end_date < ? "
+                        + "ORDER BY b.start_date DESC, b.id DESC LIMIT 20", bookerId, now);
+        check("findById", false, "SELECT b.id FROM bookings b WHERE b.id = ?", 1L);
+    }
+
+    private void check(String name, boolean prunable, String sql, Object... parameters) throws SQLException {
+        Set<String> scanned = new TreeSet<>();
+        int removed = 0;
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String line = resultSet.getString(1);
+                    Matcher partition = PARTITION.matcher(line);
+                    while (partition.find()) {
+                        scanned.add(partition.group(1));
+                    }
+                    Matcher subplans = SUBPLANS_REMOVED.matcher(line);
+                    if (subplans.find()) {
+                        removed += Integer.parseInt(subplans.group(1));
+                    }
+                }
+            }
+        }
+        int remaining = scanned.size() - removed;
+        String result;
+        if (remaining < partitions) {
+            result = "отсечено " + (partitions - remaining);
+        } else if (prunable) {
+            result = "НЕТ ОТСЕЧЕНИЯ";
+            failed = true;
+        } else {
+            result = "все секции (ожидаемо)";
+        }
+        System.out.printf("%-34s %8d %8d  %s%n", name, scanned.size(), removed, result);
+        if (prunable && remaining < partitions) {
+            System.out.printf("%34s %s%n", "", List.copyOf(scanned));
+        }
+    }
+}
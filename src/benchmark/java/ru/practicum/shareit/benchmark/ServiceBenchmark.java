@@ -0,0 +1,116 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRequestDto;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Горячие пути сервисов предметов и бронирований, а также пакетная выборка последних/следующих бронирований.
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Djmh.args="ServiceBenchmark -p users=1000 -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+    @Param("200")
+    private int users;
+    @Param("10")
+    private int itemsPerUser;
+    @Param("20")
+    private int bookingsPerItem;
+
+    private BenchmarkEnvironment environment;
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+
+    // Новые бронирования занимают непересекающиеся слоты далеко в будущем
+    private final AtomicLong bookingSlot = new AtomicLong();
+    private LocalDateTime firstSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = new BenchmarkEnvironment("service_benchmark", users, itemsPerUser, bookingsPerItem);
+        environment.seed();
+        context = environment.start(WebApplicationType.NONE, Map.of());
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        firstSlot = LocalDateTime.now().plusYears(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long itemId = environment.randomAvailableItem(random);
+        LocalDateTime start = firstSlot.plusMinutes(bookingSlot.getAndIncrement() * 10);
+        BookingRequestDto request = BookingRequestDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusMinutes(5))
+                .build();
+        return bookingService.createBooking(request, environment.bookerFor(itemId, random));
+    }
+
+    @Benchmark
+    public ItemDto getItemById() {
+        long itemId = ThreadLocalRandom.current().nextInt(environment.getItems()) + 1;
+        return itemService.getItemById(itemId, environment.ownerOf(itemId));
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllItemsByOwnerId() {
+        return itemService.getAllItemsByOwnerId((long) ThreadLocalRandom.current().nextInt(users) + 1);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchAvailableItems() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String word = BenchmarkEnvironment.WORDS[random.nextInt(BenchmarkEnvironment.WORDS.length)];
+        return itemService.searchAvailableItems(word.substring(0, 3), 0, 20);
+    }
+
+    @Benchmark
+    public Object findLastAndNextBookingsForItems() {
+        long firstItem = (long) ThreadLocalRandom.current().nextInt(users) * itemsPerUser + 1;
+        List<Long> itemIds = LongStream.range(firstItem, firstItem + itemsPerUser).boxed()
+                .collect(Collectors.toList());
+        return bookingRepository.findLastAndNextBookingsForItems(itemIds, LocalDateTime.now());
+    }
+}
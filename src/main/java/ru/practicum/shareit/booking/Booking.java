@@ -13,10 +13,19 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_BOOKER_AND_ITEM,
+        attributeNodes = {
+                @NamedAttributeNode("booker"),
+                @NamedAttributeNode(value = "item", subgraph = "item")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner")))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
+    // Граф загрузки для списков: заказчик, предмет и владелец предмета одним запросом
+    public static final String WITH_BOOKER_AND_ITEM = "Booking.withBookerAndItem";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -45,4 +54,22 @@ public class Booking {
     @Column(name = "status", nullable = false, length = 20)
     @NotNull(message = "Статус бронирования обязателен")
     private BookingStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, length = 10)
+    private BookingPhase phase;
+
+    // Копия items.owner_id для списков владельца без соединения; смену владельца переносит внешний ключ
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    private Long ownerId;
+
+    @PrePersist
+    void assignDerivedColumns() {
+        if (phase == null) {
+            phase = BookingPhase.at(startTime, endTime, LocalDateTime.now());
+        }
+        if (ownerId == null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс активных бронирований по предметам в памяти процесса.
+ * Ответ "пересечения нет" окончательный, ответ "возможно пересечение" подтверждается запросом к БД.
+ * Поэтому интервалы добавляются сразу при записи (и убираются при откате),
+ * а удаляются только после фиксации транзакции: индекс может ошибаться лишь в сторону лишней проверки.
+ * Закончившиеся интервалы периодически вытесняются, и проверки, начинающиеся раньше момента вытеснения,
+ * индекс отдаёт в БД.
+ */
+@Component
+@Slf4j
+public class BookingAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Map<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+    // Интервалы, закончившиеся до этого момента, не загружались при прогреве или уже вытеснены
+    private volatile LocalDateTime coveredFrom = LocalDateTime.MAX;
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.booking.availability-index.enabled:false}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingInterval> intervals = bookingRepository.findActiveIntervalsEndingAfter(now);
+        intervals.forEach(this::put);
+        coveredFrom = now;
+        log.info("Индекс доступности прогрет, активных бронирований: {}", intervals.size());
+    }
+
+    public boolean mayOverlap(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+        if (!enabled || start.isBefore(coveredFrom)) {
+            return true;
+        }
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return false;
+        }
+        return intervals.mayOverlap(start, end, excludedBookingId);
+    }
+
+    // Сначала сдвигается граница покрытия, потом убираются интервалы: проверка, начинающаяся не раньше границы,
+    // с вытесненным интервалом пересечься не может
+    @Scheduled(fixedDelayString = "${shareit.booking.availability-index.eviction-interval:PT10M}",
+            initialDelayString = "${shareit.booking.availability-index.eviction-interval:PT10M}")
+    public void evictEnded() {
+        if (!enabled || coveredFrom.equals(LocalDateTime.MAX)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isAfter(coveredFrom)) {
+            coveredFrom = now;
+        }
+        int evicted = 0;
+        for (ItemIntervals intervals : intervalsByItem.values()) {
+            evicted += intervals.evictEndedBy(now);
+        }
+        if (evicted > 0) {
+            log.debug("Из индекса доступности вытеснено закончившихся бронирований: {}", evicted);
+        }
+    }
+
+    int size() {
+        return intervalsByItem.values().stream().mapToInt(ItemIntervals::size).sum();
+    }
+
+    public void add(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingInterval interval = toInterval(booking);
+        put(interval);
+        afterCompletion(false, () -> remove(interval));
+    }
+
+    public void remove(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingInterval interval = toInterval(booking);
+        afterCompletion(true, () -> remove(interval));
+    }
+
+    private void put(BookingInterval interval) {
+        // Опустевшее дерево уходит из карты, запись в него повторяется через новое
+        while (!intervalsByItem.computeIfAbsent(interval.getItemId(), ItemIntervals::new).put(interval)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void remove(BookingInterval interval) {
+        ItemIntervals intervals = intervalsByItem.get(interval.getItemId());
+        if (intervals != null) {
+            intervals.remove(interval);
+        }
+    }
+
+    // Выполняет действие после фиксации (committed = true) или после отката (committed = false) транзакции
+    private static void afterCompletion(boolean committed, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (committed) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == committed) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStartTime(),
+                booking.getEndTime());
+    }
+
+    // Дерево интервалов одного предмета под блокировкой чтения-записи. Опустевшее дерево помечается выбывшим
+    // и убирается из карты под той же блокировкой, чтобы вставка не попала в дерево, которого в карте уже нет
+    private class ItemIntervals {
+        private final Long itemId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final BookingIntervalTree tree = new BookingIntervalTree();
+        private boolean retired;
+
+        ItemIntervals(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        boolean put(BookingInterval interval) {
+            lock.writeLock().lock();
+            try {
+                if (retired) {
+                    return false;
+                }
+                tree.insert(interval);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(BookingInterval interval) {
+            lock.writeLock().lock();
+            try {
+                tree.remove(interval);
+                retireIfEmpty();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int evictEndedBy(LocalDateTime cutoff) {
+            lock.writeLock().lock();
+            try {
+                int evicted = tree.removeEndedBy(cutoff);
+                retireIfEmpty();
+                return evicted;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean mayOverlap(LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+            lock.readLock().lock();
+            try {
+                return tree.overlaps(start, end, excludedBookingId);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return tree.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void retireIfEmpty() {
+            if (!retired && tree.isEmpty()) {
+                retired = true;
+                intervalsByItem.remove(itemId, this);
+            }
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.exception.ValidationException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id,booker_name";
 
     @PostMapping
     public BookingResponseDto createBooking(
@@ -32,6 +45,14 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, approved, userId);
     }
 
+    // Подтверждение или отклонение набора бронирований владельцем в одной транзакции: всё или ничего
+    @PatchMapping("/batch")
+    public List<BookingResponseDto> approveBookings(
+            @Valid @RequestBody BookingBatchRequestDto request,
+            @RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingService.approveBookings(request.getBookingIds(), request.getApproved(), userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(
             @PathVariable Long bookingId,
@@ -44,11 +65,17 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+            @RequestParam(required = false) Long afterId) {
 
         validatePaginationParams(from, size);
         BookingState bookingState = parseState(state);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
+        BookingCursor cursor = parseCursor(afterStart, afterId);
+        if (cursor != null) {
+            return bookingService.getUserBookings(userId, bookingState, cursor, size);
+        }
+        Pageable pageable = PageRequest.of(from / size, size, BookingRepository.KEYSET_SORT);
 
         return bookingService.getUserBookings(userId, bookingState, pageable);
     }
@@ -58,16 +85,123 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) Long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+            @RequestParam(required = false) Long afterId) {
 
         validatePaginationParams(from, size);
         BookingState bookingState = parseState(state);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC,
-                "startTime"));
+        BookingCursor cursor = parseCursor(afterStart, afterId);
+        if (cursor != null) {
+            return bookingService.getOwnerBookings(ownerId, bookingState, cursor, size);
+        }
+        Pageable pageable = PageRequest.of(from / size, size, BookingRepository.KEYSET_SORT);
 
         return bookingService.getOwnerBookings(ownerId, bookingState, pageable);
     }
 
+    // Потоковые варианты списков: все бронирования в состоянии state построчно в NDJSON, без пагинации.
+    // Курсор (afterStart, afterId) продолжает выдачу после последней полученной строки
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamUserBookings(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+            @RequestParam(required = false) Long afterId,
+            HttpServletResponse response) throws IOException {
+
+        BookingState bookingState = parseState(state);
+        BookingCursor cursor = parseCursor(afterStart, afterId);
+        bookingService.streamUserBookings(userId, bookingState, cursor, ndjsonWriter(response));
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterStart,
+            @RequestParam(required = false) Long afterId,
+            HttpServletResponse response) throws IOException {
+
+        BookingState bookingState = parseState(state);
+        BookingCursor cursor = parseCursor(afterStart, afterId);
+        bookingService.streamOwnerBookings(ownerId, bookingState, cursor, ndjsonWriter(response));
+    }
+
+    // Число бронирований владельца по состояниям, всего и по предметам, из счётчиков без запроса списков
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader(USER_ID_HEADER) Long ownerId) {
+        return bookingService.getOwnerSummary(ownerId);
+    }
+
+    // Вся история бронирований владельца одним ответом: format=ndjson (по умолчанию) или format=csv.
+    // Строки читаются порциями по ходу ответа, согласованного снимка на момент запроса нет
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) Long ownerId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        String extension = format.toLowerCase();
+        if (!extension.equals("ndjson") && !extension.equals("csv")) {
+            throw new ValidationException("Неизвестный формат выгрузки: " + format);
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"bookings." + extension + "\"");
+        if (extension.equals("csv")) {
+            response.setContentType("text/csv;charset=UTF-8");
+            // Заголовок остаётся в буфере писателя, пока не пойдут строки: ошибки проверок ещё меняют статус ответа
+            Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+            out.write(CSV_HEADER + "\n");
+            bookingService.exportOwnerBookings(ownerId, csvWriter(out));
+            out.flush();
+        } else {
+            bookingService.exportOwnerBookings(ownerId, ndjsonWriter(response));
+        }
+    }
+
+    // Ответ фиксируется первой строкой: ошибки проверок до неё обрабатываются ErrorHandler как обычно
+    private Consumer<BookingResponseDto> ndjsonWriter(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        return booking -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private Consumer<BookingResponseDto> csvWriter(Writer out) {
+        return booking -> {
+            try {
+                out.write(String.join(",",
+                        String.valueOf(booking.getId()),
+                        String.valueOf(booking.getStart()),
+                        String.valueOf(booking.getEnd()),
+                        String.valueOf(booking.getStatus()),
+                        String.valueOf(booking.getItem().getId()),
+                        csvField(booking.getItem().getName()),
+                        String.valueOf(booking.getBooker().getId()),
+                        csvField(booking.getBooker().getName())));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
     private BookingState parseState(String state) {
         try {
             return BookingState.valueOf(state.toUpperCase());
@@ -76,6 +210,18 @@ public class BookingController {
         }
     }
 
+    // Курсор задаётся парой (afterStart, afterId); без неё работает пагинация from/size в том же порядке
+    // (start DESC, id DESC), поэтому первую страницу можно взять через from=0, а следующие — по курсору
+    private BookingCursor parseCursor(LocalDateTime afterStart, Long afterId) {
+        if (afterStart == null && afterId == null) {
+            return null;
+        }
+        if (afterStart == null || afterId == null) {
+            throw new ValidationException("Параметры 'afterStart' и 'afterId' задаются вместе");
+        }
+        return new BookingCursor(afterStart, afterId);
+    }
+
     private void validatePaginationParams(Integer from, Integer size) {
         if (from < 0) {
             throw new ValidationException("Параметр 'from' не может быть отрицательным");
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Позиция keyset-пагинации: последнее (startTime, id), которое видел клиент
+@Value
+public class BookingCursor {
+    LocalDateTime startTime;
+    Long id;
+}
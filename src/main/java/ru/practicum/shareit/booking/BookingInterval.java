@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Интервал активного (APPROVED/WAITING) бронирования предмета
+@Value
+public class BookingInterval {
+    Long bookingId;
+    Long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,214 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Дерево интервалов бронирований одного предмета: AVL-дерево по (start, bookingId), в каждом узле хранится
+ * наибольший end его поддерева. Вставка и удаление — O(log n), поиск пересечения — O(k + log n) в худшем случае
+ * (см. overlaps). Не потокобезопасно.
+ */
+class BookingIntervalTree {
+    private static final Comparator<BookingInterval> BY_START = Comparator
+            .comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getBookingId);
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    void insert(BookingInterval interval) {
+        root = insert(root, interval);
+    }
+
+    boolean remove(BookingInterval interval) {
+        int before = size;
+        root = remove(root, interval);
+        return size < before;
+    }
+
+    // Есть ли интервал, пересекающий [start, end), кроме бронирования excludedBookingId
+    boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+        return overlaps(root, start, end, excludedBookingId);
+    }
+
+    // Убирает интервалы, закончившиеся не позже cutoff, и перестраивает дерево из оставшихся за O(n)
+    int removeEndedBy(LocalDateTime cutoff) {
+        List<BookingInterval> kept = new ArrayList<>(size);
+        collectEndingAfter(root, cutoff, kept);
+        int removed = size - kept.size();
+        if (removed > 0) {
+            root = build(kept, 0, kept.size());
+            size = kept.size();
+        }
+        return removed;
+    }
+
+    private Node insert(Node node, BookingInterval interval) {
+        if (node == null) {
+            size++;
+            return new Node(interval);
+        }
+        int cmp = BY_START.compare(interval, node.interval);
+        if (cmp < 0) {
+            node.left = insert(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, interval);
+        } else {
+            node.interval = interval;
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, BookingInterval interval) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = BY_START.compare(interval, node.interval);
+        if (cmp < 0) {
+            node.left = remove(node.left, interval);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, interval);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    // Поиск заходит и в левое, и в правое поддерево, когда maxEnd левого это допускает, поэтому в худшем случае
+    // он стоит O(k + log n), где k — узлы, пройденные впустую. Такие заходы даёт исключённое бронирование: без него
+    // левое поддерево с maxEnd > start при узле, начинающемся до end, всегда содержит пересечение
+    private static boolean overlaps(Node node, LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (overlaps(node.left, start, end, excludedBookingId)) {
+            return true;
+        }
+        if (!node.interval.getStart().isBefore(end)) {
+            return false;
+        }
+        if (node.interval.getEnd().isAfter(start) && !node.interval.getBookingId().equals(excludedBookingId)) {
+            return true;
+        }
+        return overlaps(node.right, start, end, excludedBookingId);
+    }
+
+    private static void collectEndingAfter(Node node, LocalDateTime cutoff, List<BookingInterval> kept) {
+        if (node == null) {
+            return;
+        }
+        collectEndingAfter(node.left, cutoff, kept);
+        if (node.interval.getEnd().isAfter(cutoff)) {
+            kept.add(node.interval);
+        }
+        collectEndingAfter(node.right, cutoff, kept);
+    }
+
+    private static Node build(List<BookingInterval> sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(sorted.get(middle));
+        node.left = build(sorted, from, middle);
+        node.right = build(sorted, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.interval.getEnd();
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static final class Node {
+        private BookingInterval interval;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private LocalDateTime maxEnd;
+
+        private Node(BookingInterval interval) {
+            this.interval = interval;
+            this.maxEnd = interval.getEnd();
+        }
+    }
+}
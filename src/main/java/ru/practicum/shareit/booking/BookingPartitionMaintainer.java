@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Обслуживает помесячные секции bookings в PostgreSQL (миграция V11): держит готовыми секции текущего и
+ * months-ahead следующих месяцев, а при retention-months > 0 переносит секции старше этого срока, в которых все
+ * бронирования завершились, в схему bookings_archive. Первый проход выполняется при старте. Работу делают функции
+ * БД под advisory-блокировкой, поэтому одновременный запуск на нескольких экземплярах безопасен.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partitions.enabled", havingValue = "true")
+public class BookingPartitionMaintainer {
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public BookingPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                      @Value("${shareit.booking.partitions.months-ahead:3}") int monthsAhead,
+                                      @Value("${shareit.booking.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.partitions.interval:PT6H}",
+            initialDelayString = "${shareit.booking.partitions.initial-delay:PT0S}")
+    public void maintainPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            String created = jdbcTemplate.queryForObject("SELECT bookings_ensure_partition(?)", String.class,
+                    month.plusMonths(i));
+            if (created != null) {
+                log.info("Создана секция бронирований {}", created);
+            }
+        }
+        if (retentionMonths > 0) {
+            List<String> archived = jdbcTemplate.queryForList("SELECT bookings_archive_partitions(?)", String.class,
+                    month.minusMonths(retentionMonths));
+            if (!archived.isEmpty()) {
+                log.info("Секции бронирований перенесены в bookings_archive: {}", archived);
+            }
+        }
+    }
+}
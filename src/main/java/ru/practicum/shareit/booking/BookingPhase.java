@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Положение бронирования относительно текущего времени; хранится в строке и обновляется BookingPhaseScheduler.
+// Сохранённая фаза может отставать от часов, но никогда их не опережает
+public enum BookingPhase {
+    FUTURE, CURRENT, PAST;
+
+    // Фазы, в которых может храниться бронирование, уже идущее сейчас
+    public static final Set<BookingPhase> UP_TO_CURRENT = EnumSet.of(FUTURE, CURRENT);
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        return start.isBefore(now) ? CURRENT : FUTURE;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Переводит бронирования по фазам FUTURE -> CURRENT -> PAST, когда наступают их границы: пачками по batch-size,
+ * каждая пачка — один UPDATE и одно событие BookingPhaseTransitionEvent. Первый проход выполняется при старте и
+ * догоняет границы, пройденные, пока приложение было остановлено. Переходы идемпотентны, поэтому несколько
+ * экземпляров приложения не испортят данные, но события от них могут прийти повторно.
+ * <p>
+ * Списки CURRENT/PAST/FUTURE от планировщика не зависят: фаза лишь сужает поиск, состояние проверяется по датам.
+ * Если планировщик выключен, отстают только счётчики сводки владельца, а списки становятся медленнее.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.phase-scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingPhaseScheduler {
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${shareit.booking.phase-scheduler.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase-scheduler.interval:PT30S}",
+            initialDelayString = "${shareit.booking.phase-scheduler.initial-delay:PT0S}")
+    public void advancePhases() {
+        LocalDateTime now = LocalDateTime.now();
+        // Сначала завершившиеся: короткое бронирование может перейти из FUTURE сразу в PAST
+        int ended = advance(BookingPhase.PAST, page -> bookingRepository.findIdsEndedBefore(now, page));
+        int started = advance(BookingPhase.CURRENT, page -> bookingRepository.findIdsStartedBefore(now, page));
+        if (ended + started > 0) {
+            log.info("Фазы бронирований обновлены: {} завершились, {} начались", ended, started);
+        }
+    }
+
+    private int advance(BookingPhase phase, Function<Pageable, List<Long>> candidates) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<Long> ids = candidates.apply(batch);
+                if (!ids.isEmpty()) {
+                    bookingRepository.updatePhase(ids, phase);
+                    eventPublisher.publishEvent(new BookingPhaseTransitionEvent(ids, phase));
+                }
+                return ids.size();
+            });
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Пачка бронирований перешла в фазу phase. Публикуется внутри транзакции перехода: слушателям,
+// которым нужны зафиксированные данные, подходит @TransactionalEventListener
+@Value
+public class BookingPhaseTransitionEvent {
+    List<Long> bookingIds;
+    BookingPhase phase;
+}
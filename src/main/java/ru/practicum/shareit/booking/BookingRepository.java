@@ -1,45 +1,83 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
+
+    Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    @Override
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByIdIn(Collection<Long> ids);
 
     // Бронирования пользователя с фильтром по статусу
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
     List<Booking> findByBookerIdOrderByStartTimeDesc(Long bookerId, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
     List<Booking> findByBookerIdAndStatusOrderByStartTimeDesc(Long bookerId, BookingStatus status, Pageable pageable);
 
-    List<Booking> findByBookerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
-            Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    // Состояния CURRENT и FUTURE: сохранённая фаза сужает диапазон индекса (booker_id, phase, start_date), а
+    // точный ответ дают даты. Фаза не опережает часы, поэтому отставание планировщика на ответ не влияет
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByBookerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+            Long bookerId, Collection<BookingPhase> phases, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByBookerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(
+            Long bookerId, BookingPhase phase, LocalDateTime start, Pageable pageable);
 
+    // Состояние PAST — по дате окончания: в PAST попадают и строки, которые планировщик ещё не перевёл
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
     List<Booking> findByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(
             Long bookerId, LocalDateTime end, Pageable pageable);
 
-    List<Booking> findByBookerIdAndStartTimeAfterOrderByStartTimeDesc(
-            Long bookerId, LocalDateTime start, Pageable pageable);
+    // Бронирования владельца по денормализованному owner_id: фильтр и порядок из индексов idx_bookings_owner_*
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByOwnerIdOrderByStartTimeDesc(Long ownerId, Pageable pageable);
 
-    // Бронирования владельца с фильтром по статусу
-    List<Booking> findByItemOwnerIdOrderByStartTimeDesc(Long ownerId, Pageable pageable);
-
-    List<Booking> findByItemOwnerIdAndStatusOrderByStartTimeDesc(
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByOwnerIdAndStatusOrderByStartTimeDesc(
             Long ownerId, BookingStatus status, Pageable pageable);
 
-    List<Booking> findByItemOwnerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
-            Long ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByOwnerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+            Long ownerId, Collection<BookingPhase> phases, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByOwnerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(
+            Long ownerId, BookingPhase phase, LocalDateTime start, Pageable pageable);
 
-    List<Booking> findByItemOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(
+    @EntityGraph(Booking.WITH_BOOKER_AND_ITEM)
+    List<Booking> findByOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(
             Long ownerId, LocalDateTime end, Pageable pageable);
 
-    List<Booking> findByItemOwnerIdAndStartTimeAfterOrderByStartTimeDesc(
-            Long ownerId, LocalDateTime start, Pageable pageable);
+    // Keyset-страница: без OFFSET и без запроса количества, с заказчиком, предметом и владельцем
+    default List<Booking> findKeysetPage(Specification<Booking> specification, int size) {
+        return findBy(specification, query -> query
+                .sortBy(KEYSET_SORT)
+                .project("booker", "item", "item.owner")
+                .limit(size)
+                .all());
+    }
 
     // Последнее и следующее бронирование для предмета
     @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId AND b.status = 'APPROVED' " +
@@ -52,6 +90,18 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findNextBookingForItem(@Param("itemId") Long itemId, @Param("currentTime") LocalDateTime currentTime,
                                          Pageable pageable);
 
+    // Последнее и следующее бронирование сразу для набора предметов (одним запросом)
+    @Query(value = "SELECT b.* FROM bookings b JOIN (" +
+            "SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY end_date DESC) AS rn " +
+            "FROM bookings WHERE item_id IN (:itemIds) AND status = 'APPROVED' AND end_date < :currentTime " +
+            "UNION ALL " +
+            "SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date ASC) AS rn " +
+            "FROM bookings WHERE item_id IN (:itemIds) AND status = 'APPROVED' AND start_date > :currentTime" +
+            ") ranked ON ranked.id = b.id WHERE ranked.rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastAndNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                                  @Param("currentTime") LocalDateTime currentTime);
+
     // Проверка существования бронирований для предмета пользователем
     @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.item.id = :itemId AND b.booker.id = :userId " +
             "AND b.status = 'APPROVED' AND b.endTime < :currentTime")
@@ -59,6 +109,19 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                       @Param("userId") Long userId,
                                                       @Param("currentTime") LocalDateTime currentTime);
 
+    // Активные интервалы для прогрева индекса доступности
+    @Query("SELECT new ru.practicum.shareit.booking.BookingInterval(b.id, b.item.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.status IN ('APPROVED', 'WAITING') AND b.endTime > :after")
+    List<BookingInterval> findActiveIntervalsEndingAfter(@Param("after") LocalDateTime after);
+
+    // Активные интервалы набора предметов, пересекающие период [from, to), одним запросом
+    @Query("SELECT new ru.practicum.shareit.booking.BookingInterval(b.id, b.item.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.item.id IN :itemIds AND b.status IN ('APPROVED', 'WAITING') " +
+            "AND b.startTime < :to AND b.endTime > :from ORDER BY b.item.id, b.startTime")
+    List<BookingInterval> findActiveIntervals(@Param("itemIds") Collection<Long> itemIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
     // Проверяет, есть ли пересекающиеся APPROVED/WAITING бронирования для предмета
 
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
@@ -69,6 +132,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                       @Param("startTime") LocalDateTime startTime,
                                       @Param("endTime") LocalDateTime endTime);
 
+    // Бронирования из набора, пересекающиеся с APPROVED/WAITING бронированиями того же предмета вне набора
+    @Query("SELECT DISTINCT b.id FROM Booking b, Booking o " +
+            "WHERE b.id IN :ids AND o.item.id = b.item.id AND o.id NOT IN :ids " +
+            "AND o.status IN ('APPROVED', 'WAITING') " +
+            "AND o.startTime < b.endTime AND o.endTime > b.startTime")
+    List<Long> findOverlappingOutside(@Param("ids") Collection<Long> ids);
+
+    // Бронирования, у которых наступила граница фазы: закончились (-> PAST) и начались (-> CURRENT)
+    @Query("SELECT b.id FROM Booking b WHERE b.phase IN ('FUTURE', 'CURRENT') AND b.endTime < :now")
+    List<Long> findIdsEndedBefore(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.phase = 'FUTURE' AND b.startTime < :now AND b.endTime >= :now")
+    List<Long> findIdsStartedBefore(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Сводка владельца: число бронирований по предметам, фазам и статусам одним запросом
+    @Query("SELECT new ru.practicum.shareit.booking.OwnerBookingCount(b.item.id, b.phase, b.status, COUNT(b)) " +
+            "FROM Booking b WHERE b.ownerId = :ownerId GROUP BY b.item.id, b.phase, b.status")
+    List<OwnerBookingCount> countByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT DISTINCT b.ownerId FROM Booking b WHERE b.id IN :ids")
+    List<Long> findOwnerIdsByBookingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.phase = :phase WHERE b.id IN :ids")
+    int updatePhase(@Param("ids") Collection<Long> ids, @Param("phase") BookingPhase phase);
+
+    // Смена статуса набора бронирований одним UPDATE; загруженные сущности после него отсоединяются
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
     // Проверяет пересечения, исключая текущее бронирование (для обновлений)
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.item.id = :itemId " +
@@ -3,15 +3,32 @@ package ru.practicum.shareit.booking;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingResponseDto createBooking(BookingRequestDto bookingRequestDto, Long bookerId);
 
     BookingResponseDto approveBooking(Long bookingId, Boolean approved, Long ownerId);
 
+    List<BookingResponseDto> approveBookings(List<Long> bookingIds, Boolean approved, Long ownerId);
+
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
     List<BookingResponseDto> getUserBookings(Long userId, BookingState state, Pageable pageable);
 
+    List<BookingResponseDto> getUserBookings(Long userId, BookingState state, BookingCursor cursor, int size);
+
     List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, Pageable pageable);
+
+    List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, BookingCursor cursor, int size);
+
+    void streamUserBookings(Long userId, BookingState state, BookingCursor cursor,
+                            Consumer<BookingResponseDto> consumer);
+
+    void streamOwnerBookings(Long ownerId, BookingState state, BookingCursor cursor,
+                             Consumer<BookingResponseDto> consumer);
+
+    void exportOwnerBookings(Long ownerId, Consumer<BookingResponseDto> consumer);
+
+    BookingSummaryDto getOwnerSummary(Long ownerId);
 }
\ No newline at end of file
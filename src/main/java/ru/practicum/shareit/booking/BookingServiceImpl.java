@@ -1,9 +1,13 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
@@ -11,31 +15,46 @@ import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
+@Timed(value = "shareit.service", histogram = true)
 public class BookingServiceImpl implements BookingService {
+    // Потоковая выдача читается keyset-порциями такого размера, каждая порция — в своей короткой транзакции
+    static final int STREAM_CHUNK_SIZE = 500;
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final OwnerBookingCounters ownerBookingCounters;
 
     @Override
     @Transactional
     public BookingResponseDto createBooking(BookingRequestDto bookingRequestDto, Long bookerId) {
-        User booker = userRepository.findById(bookerId)
-                .orElseThrow(() -> new NoSuchElementException("Пользователь не найден с id: " + bookerId));
+        userExistenceCache.requireExists(bookerId);
+        User booker = userRepository.getReferenceById(bookerId);
 
-        Item item = itemRepository.findById(bookingRequestDto.getItemId())
+        // Строка предмета блокируется до конца транзакции, чтобы проверка пересечений и вставка были атомарны
+        Item item = itemRepository.findByIdForUpdate(bookingRequestDto.getItemId())
                 .orElseThrow(() -> new NoSuchElementException("Предмет не найден с id: " + bookingRequestDto.getItemId()));
 
         // Проверка доступности предмета
@@ -57,7 +76,10 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Дата начала должна быть в будущем");
         }
 
-        boolean hasOverlap = bookingRepository.existsOverlappingBookings(
+        // БД спрашиваем только если индекс в памяти допускает пересечение
+        boolean hasOverlap = availabilityIndex.mayOverlap(item.getId(), bookingRequestDto.getStart(),
+                bookingRequestDto.getEnd(), null)
+                && bookingRepository.existsOverlappingBookings(
                 item.getId(),
                 bookingRequestDto.getStart(),
                 bookingRequestDto.getEnd()
@@ -72,6 +94,8 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
 
         Booking savedBooking = bookingRepository.save(booking);
+        availabilityIndex.add(savedBooking);
+        ownerBookingCounters.created(savedBooking);
         log.info("Создано бронирование с id: {}", savedBooking.getId());
 
         return bookingMapper.toDto(savedBooking);
@@ -94,7 +118,10 @@ public class BookingServiceImpl implements BookingService {
         }
 
         if (approved) {
-            boolean hasOverlap = bookingRepository.existsOverlappingBookingsExcluding(
+            itemRepository.findByIdForUpdate(booking.getItem().getId());
+            boolean hasOverlap = availabilityIndex.mayOverlap(booking.getItem().getId(), booking.getStartTime(),
+                    booking.getEndTime(), bookingId)
+                    && bookingRepository.existsOverlappingBookingsExcluding(
                     booking.getItem().getId(),
                     booking.getStartTime(),
                     booking.getEndTime(),
@@ -108,12 +135,85 @@ public class BookingServiceImpl implements BookingService {
 
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
         Booking updatedBooking = bookingRepository.save(booking);
+        if (!approved) {
+            availabilityIndex.remove(updatedBooking);
+        }
+        ownerBookingCounters.statusChanged(List.of(updatedBooking), BookingStatus.WAITING);
 
         log.info("Бронирование {} {}", bookingId, approved ? "подтверждено" : "отклонено");
 
         return bookingMapper.toDto(updatedBooking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingResponseDto> approveBookings(List<Long> bookingIds, Boolean approved, Long ownerId) {
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        List<Booking> bookings = bookingRepository.findByIdIn(ids);
+        if (bookings.size() < ids.size()) {
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            bookings.forEach(booking -> missing.remove(booking.getId()));
+            throw new NoSuchElementException("Бронирования не найдены с id: " + missing);
+        }
+
+        for (Booking booking : bookings) {
+            if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                throw new ForbiddenException("Только владелец предмета может подтверждать бронирование "
+                        + booking.getId());
+            }
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                throw new ConflictException("Бронирование " + booking.getId() + " уже обработано");
+            }
+        }
+
+        if (approved) {
+            itemRepository.findAllByIdForUpdate(bookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toCollection(TreeSet::new)));
+            checkNoOverlapsWithinBatch(bookings);
+            List<Long> overlapping = bookingRepository.findOverlappingOutside(ids);
+            if (!overlapping.isEmpty()) {
+                throw new ValidationException("Нельзя подтвердить бронирования " + overlapping
+                        + " - есть пересечение с другими бронированиями");
+            }
+        }
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        bookingRepository.updateStatus(ids, status);
+        bookings.forEach(booking -> {
+            booking.setStatus(status);
+            if (!approved) {
+                availabilityIndex.remove(booking);
+            }
+        });
+        ownerBookingCounters.statusChanged(bookings, BookingStatus.WAITING);
+
+        log.info("Бронирования {} {}", ids, approved ? "подтверждены" : "отклонены");
+
+        Map<Long, Booking> byId = bookings.stream().collect(Collectors.toMap(Booking::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // Подтверждаемые вместе бронирования одного предмета не должны пересекаться между собой
+    private void checkNoOverlapsWithinBatch(List<Booking> bookings) {
+        Map<Long, List<Booking>> byItem = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (List<Booking> itemBookings : byItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStartTime));
+            for (int i = 1; i < itemBookings.size(); i++) {
+                Booking previous = itemBookings.get(i - 1);
+                Booking current = itemBookings.get(i);
+                if (current.getStartTime().isBefore(previous.getEndTime())) {
+                    throw new ValidationException("Нельзя подтвердить вместе пересекающиеся бронирования "
+                            + previous.getId() + " и " + current.getId());
+                }
+            }
+        }
+    }
+
     @Override
     public BookingResponseDto getBookingById(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -129,9 +229,10 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long userId, BookingState state, Pageable pageable) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("Пользователь не найден с id: " + userId));
+    @Timed(value = "shareit.booking.listing", extraTags = {"paging", "offset"}, histogram = true)
+    public List<BookingResponseDto> getUserBookings(Long userId, @MeterTag("state") BookingState state,
+                                                    Pageable pageable) {
+        userExistenceCache.requireExists(userId);
 
         List<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
@@ -141,14 +242,16 @@ public class BookingServiceImpl implements BookingService {
                 bookings = bookingRepository.findByBookerIdOrderByStartTimeDesc(userId, pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
-                        userId, now, now, pageable);
+                bookings = bookingRepository
+                        .findByBookerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+                                userId, BookingPhase.UP_TO_CURRENT, now, now, pageable);
                 break;
             case PAST:
                 bookings = bookingRepository.findByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(userId, now, pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartTimeAfterOrderByStartTimeDesc(userId, now, pageable);
+                bookings = bookingRepository.findByBookerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(userId,
+                        BookingPhase.FUTURE, now, pageable);
                 break;
             case WAITING:
                 bookings = bookingRepository.findByBookerIdAndStatusOrderByStartTimeDesc(userId,
@@ -168,35 +271,51 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, Pageable pageable) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NoSuchElementException("Пользователь не найден с id: " + ownerId));
+    @Timed(value = "shareit.booking.listing", extraTags = {"paging", "keyset"}, histogram = true)
+    public List<BookingResponseDto> getUserBookings(Long userId, @MeterTag("state") BookingState state,
+                                                    BookingCursor cursor, int size) {
+        userExistenceCache.requireExists(userId);
+
+        Specification<Booking> specification = BookingSpecifications.bookerIdEquals(userId)
+                .and(BookingSpecifications.inState(state, LocalDateTime.now()))
+                .and(BookingSpecifications.after(cursor));
+
+        return bookingRepository.findKeysetPage(specification, size).stream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Timed(value = "shareit.booking.listing", extraTags = {"paging", "offset"}, histogram = true)
+    public List<BookingResponseDto> getOwnerBookings(Long ownerId, @MeterTag("state") BookingState state,
+                                                     Pageable pageable) {
+        userExistenceCache.requireExists(ownerId);
 
         List<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartTimeDesc(ownerId, pageable);
+                bookings = bookingRepository.findByOwnerIdOrderByStartTimeDesc(ownerId, pageable);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
-                        ownerId, now, now, pageable);
+                bookings = bookingRepository
+                        .findByOwnerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+                                ownerId, BookingPhase.UP_TO_CURRENT, now, now, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository
-                        .findByItemOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(ownerId, now, pageable);
+                bookings = bookingRepository.findByOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(ownerId, now, pageable);
                 break;
             case FUTURE:
-                bookings = bookingRepository
-                        .findByItemOwnerIdAndStartTimeAfterOrderByStartTimeDesc(ownerId, now, pageable);
+                bookings = bookingRepository.findByOwnerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(ownerId,
+                        BookingPhase.FUTURE, now, pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
+                bookings = bookingRepository.findByOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
                         BookingStatus.WAITING, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
+                bookings = bookingRepository.findByOwnerIdAndStatusOrderByStartTimeDesc(ownerId,
                         BookingStatus.REJECTED, pageable);
                 break;
             default:
@@ -207,4 +326,78 @@ public class BookingServiceImpl implements BookingService {
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    @Timed(value = "shareit.booking.listing", extraTags = {"paging", "keyset"}, histogram = true)
+    public List<BookingResponseDto> getOwnerBookings(Long ownerId, @MeterTag("state") BookingState state,
+                                                     BookingCursor cursor, int size) {
+        userExistenceCache.requireExists(ownerId);
+
+        Specification<Booking> specification = BookingSpecifications.ownerIdEquals(ownerId)
+                .and(BookingSpecifications.inState(state, LocalDateTime.now()))
+                .and(BookingSpecifications.after(cursor));
+
+        return bookingRepository.findKeysetPage(specification, size).stream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // Потоковые выдачи идут без общей транзакции: соединение берётся только на чтение очередной порции
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamUserBookings(Long userId, BookingState state, BookingCursor cursor,
+                                   Consumer<BookingResponseDto> consumer) {
+        userExistenceCache.requireExists(userId);
+
+        streamBookings(BookingSpecifications.bookerIdEquals(userId)
+                .and(BookingSpecifications.inState(state, LocalDateTime.now())), cursor, consumer);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamOwnerBookings(Long ownerId, BookingState state, BookingCursor cursor,
+                                    Consumer<BookingResponseDto> consumer) {
+        userExistenceCache.requireExists(ownerId);
+
+        streamBookings(BookingSpecifications.ownerIdEquals(ownerId)
+                .and(BookingSpecifications.inState(state, LocalDateTime.now())), cursor, consumer);
+    }
+
+    // Выгрузка читается не одним курсором в одной транзакции, а теми же keyset-порциями, что и потоковые списки,
+    // поэтому она не снимок: каждая строка отдаётся не более одного раза, а бронирование, созданное во время
+    // выгрузки, попадает в неё, только если его место в порядке (start DESC, id DESC) ещё не пройдено
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportOwnerBookings(Long ownerId, Consumer<BookingResponseDto> consumer) {
+        userExistenceCache.requireExists(ownerId);
+
+        streamBookings(BookingSpecifications.ownerIdEquals(ownerId), null, consumer);
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(Long ownerId) {
+        userExistenceCache.requireExists(ownerId);
+
+        return ownerBookingCounters.summary(ownerId);
+    }
+
+    // Каждая порция — keyset-страница от последней отданной строки в отдельной транзакции репозитория.
+    // Пока потребитель пишет порцию в ответ (и ждёт медленного клиента), соединение уже возвращено в пул,
+    // а прочитанные сущности отсоединены и не копятся в контексте персистентности
+    private void streamBookings(Specification<Booking> specification, BookingCursor cursor,
+                                Consumer<BookingResponseDto> consumer) {
+        BookingCursor position = cursor;
+        List<Booking> chunk;
+        do {
+            chunk = bookingRepository.findKeysetPage(specification.and(BookingSpecifications.after(position)),
+                    STREAM_CHUNK_SIZE);
+            for (Booking booking : chunk) {
+                consumer.accept(bookingMapper.toDto(booking));
+            }
+            if (!chunk.isEmpty()) {
+                Booking last = chunk.get(chunk.size() - 1);
+                position = new BookingCursor(last.getStartTime(), last.getId());
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+}
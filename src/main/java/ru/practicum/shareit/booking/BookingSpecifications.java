@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> bookerIdEquals(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ownerIdEquals(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+    }
+
+    // CURRENT и FUTURE точны по датам, фаза лишь сужает поиск по индексу (см. BookingPhase)
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return (root, query, cb) -> cb.conjunction();
+            case CURRENT:
+                return (root, query, cb) -> cb.and(
+                        root.get("phase").in(BookingPhase.UP_TO_CURRENT),
+                        cb.lessThan(root.get("startTime"), now),
+                        cb.greaterThan(root.get("endTime"), now));
+            case PAST:
+                return (root, query, cb) -> cb.lessThan(root.get("endTime"), now);
+            case FUTURE:
+                return (root, query, cb) -> cb.and(
+                        cb.equal(root.get("phase"), BookingPhase.FUTURE),
+                        cb.greaterThan(root.get("startTime"), now));
+            case WAITING:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.REJECTED);
+            default:
+                throw new IllegalArgumentException("Unknown state: " + state);
+        }
+    }
+
+    // Условие поиска "после курсора" для порядка start_date DESC, id DESC; без курсора — первая страница
+    public static Specification<Booking> after(BookingCursor cursor) {
+        if (cursor == null) {
+            return (root, query, cb) -> cb.conjunction();
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("startTime"), cursor.getStartTime()),
+                cb.and(
+                        cb.equal(root.get("startTime"), cursor.getStartTime()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSummaryDto {
+    private Map<BookingState, Long> states;
+    private List<ItemBookingSummaryDto> items;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Value;
+
+// Число бронирований предмета владельца с данными фазой и статусом
+@Value
+public class OwnerBookingCount {
+    Long itemId;
+    BookingPhase phase;
+    BookingStatus status;
+    long count;
+}
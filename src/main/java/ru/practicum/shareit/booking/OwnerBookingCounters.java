@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Счётчики бронирований по состояниям для сводки владельца (GET /bookings/owner/summary).
+ * <p>
+ * Счётчики владельца загружаются одним агрегирующим запросом при первом обращении и дальше поддерживаются
+ * createBooking/approveBooking после коммита; смена фаз планировщиком сбрасывает затронутых владельцев.
+ * Изменения, которые сюда не приходят (каскадное удаление пользователя, другие экземпляры приложения, гонка
+ * загрузки с параллельным коммитом), исправляются пересчётом: запись живёт не дольше ttl.
+ */
+@Component
+public class OwnerBookingCounters {
+    private static final int PHASES = BookingPhase.values().length;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, OwnerCounts> countsByOwner;
+
+    public OwnerBookingCounters(BookingRepository bookingRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking.owner-summary.maximum-size:10000}") long maximumSize,
+                                @Value("${shareit.booking.owner-summary.ttl:PT5M}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.countsByOwner = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, countsByOwner, "ownerBookingSummary");
+    }
+
+    // Загрузка вне Cache.get: вычисление внутри него держит монитор на время запроса к БД
+    public BookingSummaryDto summary(Long ownerId) {
+        OwnerCounts counts = countsByOwner.getIfPresent(ownerId);
+        if (counts == null) {
+            OwnerCounts loaded = new OwnerCounts();
+            bookingRepository.countByOwnerId(ownerId).forEach(loaded::add);
+            counts = countsByOwner.asMap().putIfAbsent(ownerId, loaded);
+            if (counts == null) {
+                counts = loaded;
+            }
+        }
+        return counts.toDto();
+    }
+
+    public void created(Booking booking) {
+        Long ownerId = booking.getItem().getOwner().getId();
+        Long itemId = booking.getItem().getId();
+        BookingPhase phase = booking.getPhase();
+        BookingStatus status = booking.getStatus();
+        afterCommit(() -> update(ownerId, counts -> counts.add(itemId, phase, status, 1)));
+    }
+
+    // Бронирования одного владельца, перешедшие из статуса previous в свой текущий
+    public void statusChanged(Collection<Booking> bookings, BookingStatus previous) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Long ownerId = bookings.iterator().next().getItem().getOwner().getId();
+        List<OwnerBookingCount> changes = bookings.stream()
+                .map(booking -> new OwnerBookingCount(booking.getItem().getId(), booking.getPhase(),
+                        booking.getStatus(), 1))
+                .collect(Collectors.toList());
+        afterCommit(() -> update(ownerId, counts -> changes.forEach(change -> {
+            counts.add(change.getItemId(), change.getPhase(), previous, -1);
+            counts.add(change.getItemId(), change.getPhase(), change.getStatus(), 1);
+        })));
+    }
+
+    // Прежняя фаза перешедших бронирований неизвестна, поэтому затронутые владельцы пересчитываются заново
+    @EventListener
+    public void onPhaseTransition(BookingPhaseTransitionEvent event) {
+        if (countsByOwner.estimatedSize() == 0) {
+            return;
+        }
+        List<Long> ownerIds = bookingRepository.findOwnerIdsByBookingIds(event.getBookingIds());
+        afterCommit(() -> countsByOwner.invalidateAll(ownerIds));
+    }
+
+    private void update(Long ownerId, Consumer<OwnerCounts> change) {
+        OwnerCounts counts = countsByOwner.getIfPresent(ownerId);
+        if (counts != null) {
+            change.accept(counts);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Счётчики предметов владельца: сначала по фазам, затем по статусам
+    private static class OwnerCounts {
+        private final Map<Long, AtomicLongArray> byItem = new ConcurrentHashMap<>();
+
+        void add(OwnerBookingCount count) {
+            add(count.getItemId(), count.getPhase(), count.getStatus(), count.getCount());
+        }
+
+        void add(Long itemId, BookingPhase phase, BookingStatus status, long delta) {
+            AtomicLongArray counters = byItem.computeIfAbsent(itemId,
+                    id -> new AtomicLongArray(PHASES + BookingStatus.values().length));
+            counters.addAndGet(phase.ordinal(), delta);
+            counters.addAndGet(PHASES + status.ordinal(), delta);
+        }
+
+        BookingSummaryDto toDto() {
+            long[] total = new long[PHASES + BookingStatus.values().length];
+            List<ItemBookingSummaryDto> items = byItem.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(entry -> {
+                        long[] counters = new long[total.length];
+                        for (int i = 0; i < counters.length; i++) {
+                            counters[i] = entry.getValue().get(i);
+                            total[i] += counters[i];
+                        }
+                        return ItemBookingSummaryDto.builder()
+                                .itemId(entry.getKey())
+                                .states(toStates(counters))
+                                .build();
+                    })
+                    .collect(Collectors.toList());
+            return BookingSummaryDto.builder()
+                    .states(toStates(total))
+                    .items(items)
+                    .build();
+        }
+
+        private static Map<BookingState, Long> toStates(long[] counters) {
+            Map<BookingState, Long> states = new EnumMap<>(BookingState.class);
+            states.put(BookingState.ALL, counters[BookingPhase.FUTURE.ordinal()]
+                    + counters[BookingPhase.CURRENT.ordinal()] + counters[BookingPhase.PAST.ordinal()]);
+            states.put(BookingState.CURRENT, counters[BookingPhase.CURRENT.ordinal()]);
+            states.put(BookingState.PAST, counters[BookingPhase.PAST.ordinal()]);
+            states.put(BookingState.FUTURE, counters[BookingPhase.FUTURE.ordinal()]);
+            states.put(BookingState.WAITING, counters[PHASES + BookingStatus.WAITING.ordinal()]);
+            states.put(BookingState.REJECTED, counters[PHASES + BookingStatus.REJECTED.ordinal()]);
+            return states;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -7,7 +8,9 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByItemIdInOrderByCreatedDesc(List<Long> itemIds);
 }
\ No newline at end of file
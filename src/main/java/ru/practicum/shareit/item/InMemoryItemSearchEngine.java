@@ -0,0 +1,200 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный триграммный индекс в памяти процесса (для H2 и тестов).
+ * Сохраняет семантику поиска по подстроке: кандидаты отбираются по пересечению
+ * триграмм запроса и затем проверяются через contains.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Lock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    public void rebuild() {
+        itemRepository.findAll().forEach(item -> put(IndexedItem.of(item)));
+        log.info("Поисковый индекс построен, предметов: {}", items.size());
+    }
+
+    // Страница отсчитывается по предметам, найденным в БД: id, которых там уже нет, не укорачивают её и
+    // убираются из индекса. Обычно хватает одного чтения на from + size id
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        String query = text.toLowerCase();
+        List<Long> ids = candidates(query).stream()
+                .filter(item -> item.available() && item.matches(query))
+                .sorted(Comparator.comparingDouble((IndexedItem item) -> item.score(query)).reversed()
+                        .thenComparing(IndexedItem::id))
+                .map(IndexedItem::id)
+                .collect(Collectors.toList());
+
+        List<Item> page = new ArrayList<>(size);
+        int chunkSize = from + size;
+        int skipped = 0;
+        for (int offset = 0; offset < ids.size() && page.size() < size; offset += chunkSize) {
+            List<Long> chunk = ids.subList(offset, Math.min(offset + chunkSize, ids.size()));
+            Map<Long, Item> loaded = itemRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : chunk) {
+                Item item = loaded.get(id);
+                if (item == null) {
+                    delete(id);
+                } else if (skipped < from) {
+                    skipped++;
+                } else if (page.size() < size) {
+                    page.add(item);
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void index(Item item) {
+        IndexedItem indexed = IndexedItem.of(item);
+        afterCommit(() -> put(indexed));
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        afterCommit(() -> delete(itemId));
+    }
+
+    // Изменения попадают в индекс только после успешной фиксации транзакции
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Collection<IndexedItem> candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return items.values();
+        }
+        List<Set<Long>> lists = gramsOf(query).stream()
+                .map(gram -> postings.getOrDefault(gram, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .collect(Collectors.toList());
+        Set<Long> ids = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(lists.get(i));
+        }
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void put(IndexedItem item) {
+        writeLock.lock();
+        try {
+            IndexedItem previous = items.put(item.id(), item);
+            Set<String> newGrams = item.grams();
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    if (!newGrams.contains(gram)) {
+                        unlink(gram, item.id());
+                    }
+                }
+            }
+            for (String gram : newGrams) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(item.id());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void delete(Long itemId) {
+        writeLock.lock();
+        try {
+            IndexedItem previous = items.remove(itemId);
+            if (previous != null) {
+                previous.grams().forEach(gram -> unlink(gram, itemId));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unlink(String gram, Long itemId) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private record IndexedItem(Long id, String name, String description, boolean available) {
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), item.getName().toLowerCase(), item.getDescription().toLowerCase(),
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        // Совпадение в названии весомее совпадения в описании, начало названия — ещё весомее
+        double score(String query) {
+            double score = 0;
+            if (name.contains(query)) {
+                score += name.startsWith(query) ? 3 : 2;
+                score += (double) query.length() / name.length();
+            }
+            if (description.contains(query)) {
+                score += 1;
+            }
+            return score;
+        }
+    }
+}
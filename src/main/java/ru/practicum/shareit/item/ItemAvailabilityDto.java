@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private Long itemId;
+    private Boolean available;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<TimeWindowDto> busy;
+    private List<TimeWindowDto> free;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBulkErrorDto {
+    // Порядковый номер элемента массива (для NDJSON — непустой строки), с нуля
+    private int row;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBulkResultDto {
+    private int created;
+    // id созданных предметов в порядке входных строк
+    private List<Long> ids;
+    private List<ItemBulkErrorDto> errors;
+}
@@ -1,9 +1,21 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.ValidationException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -11,6 +23,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto createItem(@Valid @RequestBody ItemCreateDto itemCreateDto,
@@ -18,6 +31,48 @@ public class ItemController {
         return itemService.createItem(itemCreateDto, ownerId);
     }
 
+    // Массовый импорт: JSON-массив или NDJSON (по предмету в строке); ошибки проверки возвращаются по строкам
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ItemBulkResultDto createItems(HttpServletRequest request,
+                                         @RequestHeader("X-Sharer-User-Id") Long ownerId) throws IOException {
+        // Массив разбирается потоково, чтобы не собирать в памяти тело, которое всё равно будет отклонено
+        List<ItemCreateDto> itemCreateDtos = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ValidationException("Ожидается JSON-массив предметов");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                checkBulkLimit(itemCreateDtos.size());
+                itemCreateDtos.add(objectMapper.readValue(parser, ItemCreateDto.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректный JSON в элементе " + itemCreateDtos.size());
+        }
+        return itemService.createItems(itemCreateDtos, ownerId);
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemBulkResultDto createItemsFromNdjson(HttpServletRequest request,
+                                                   @RequestHeader("X-Sharer-User-Id") Long ownerId)
+            throws IOException {
+        List<ItemCreateDto> itemCreateDtos = new ArrayList<>();
+        BufferedReader reader = request.getReader();
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkBulkLimit(itemCreateDtos.size());
+            try {
+                itemCreateDtos.add(objectMapper.readValue(line, ItemCreateDto.class));
+            } catch (JsonProcessingException e) {
+                throw new ValidationException("Некорректный JSON в строке " + lineNumber);
+            }
+        }
+        return itemService.createItems(itemCreateDtos, ownerId);
+    }
+
     @GetMapping("/{id}")
     public ItemDto getItemById(@PathVariable Long id,
                                @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -37,8 +92,27 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchAvailableItems(@RequestParam String text) {
-        return itemService.searchAvailableItems(text);
+    public List<ItemDto> searchAvailableItems(@RequestParam String text,
+                                              @RequestParam(defaultValue = "0") Integer from,
+                                              @RequestParam(defaultValue = "10") Integer size) {
+        validatePaginationParams(from, size);
+        return itemService.searchAvailableItems(text, from, size);
+    }
+
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getItemAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
+    }
+
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getItemsAvailability(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(ids, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -48,4 +122,21 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.addComment(itemId, commentRequestDto, userId);
     }
+
+    // Тело дальше не читается: лишний элемент уже означает отказ, разбирать остальное незачем
+    private void checkBulkLimit(int parsed) {
+        if (parsed == ItemService.MAX_BULK_ITEMS) {
+            throw new ValidationException("Нельзя создать за один запрос более " + ItemService.MAX_BULK_ITEMS +
+                    " предметов");
+        }
+    }
+
+    private void validatePaginationParams(Integer from, Integer size) {
+        if (from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+    }
 }
\ No newline at end of file
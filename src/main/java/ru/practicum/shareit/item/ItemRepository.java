@@ -1,21 +1,47 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwnerIdOrderById(Long ownerId);
 
-    @Query("SELECT i FROM Item i WHERE i.available = true AND " +
-            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
-    List<Item> searchAvailableByText(@Param("text") String text);
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Блокировка строки предмета: проверки пересечений бронирований одного предмета выполняются по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    // Блокировка набора предметов в порядке id: пакетные операции не взаимоблокируются с одиночными
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Ранжированный поиск для PostgreSQL: фильтр обслуживается триграммными индексами
+    @Query(value = "SELECT i.* FROM items i WHERE i.is_available = TRUE AND " +
+            "(LOWER(i.name) LIKE '%' || LOWER(:text) || '%' OR LOWER(i.description) LIKE '%' || LOWER(:text) || '%') " +
+            "ORDER BY (CASE WHEN LOWER(i.name) LIKE '%' || LOWER(:text) || '%' THEN 1 ELSE 0 END) + " +
+            "ts_rank(to_tsvector('simple', i.name || ' ' || i.description), plainto_tsquery('simple', :text)) + " +
+            "similarity(LOWER(i.name), LOWER(:text)) DESC, i.id " +
+            "LIMIT :size OFFSET :from",
+            nativeQuery = true)
+    List<Item> searchAvailableByTextRanked(@Param("text") String text, @Param("size") int size,
+                                           @Param("from") int from);
 
     List<Item> findByRequestId(Long requestId);
+
+    // Ответы сразу на страницу запросов; обслуживается индексом idx_items_request_id
+    List<Item> findByRequestIdInOrderById(Collection<Long> requestIds);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, int from, int size);
+
+    void index(Item item);
+
+    // Убирает удалённый предмет из индекса; в транзакции — после её фиксации
+    void remove(Long itemId);
+}
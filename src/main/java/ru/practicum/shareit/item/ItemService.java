@@ -1,17 +1,27 @@
 package ru.practicum.shareit.item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
+    // Предел строк одного массового импорта (POST /items/bulk)
+    int MAX_BULK_ITEMS = 10_000;
+
     ItemDto createItem(ItemCreateDto itemCreateDto, Long ownerId);
 
+    ItemBulkResultDto createItems(List<ItemCreateDto> itemCreateDtos, Long ownerId);
+
     ItemDto getItemById(Long id, Long ownerId);
 
     List<ItemDto> getAllItemsByOwnerId(Long ownerId);
 
     ItemDto updateItem(Long id, ItemUpdateDto itemUpdateDto, Long ownerId);
 
-    List<ItemDto> searchAvailableItems(String text);
+    List<ItemDto> searchAvailableItems(String text, Integer from, Integer size);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to);
 
     CommentResponseDto addComment(Long itemId, CommentRequestDto commentRequestDto, Long userId);
 }
\ No newline at end of file
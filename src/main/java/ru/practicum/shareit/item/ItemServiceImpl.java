@@ -1,50 +1,184 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingInterval;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingShortDto;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.request.ItemAnswerHub;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestRequester;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
+@Timed(value = "shareit.service", histogram = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_AVAILABILITY_ITEMS = 100;
+    private static final long DEFAULT_AVAILABILITY_DAYS = 30;
+    // Совпадает с hibernate.jdbc.batch_size и шагом последовательности items_seq
+    private static final int BULK_BATCH_SIZE = 50;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ItemSearchEngine itemSearchEngine;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestMapper itemRequestMapper;
+    private final ItemAnswerHub itemAnswerHub;
 
     @Override
     @Transactional
     public ItemDto createItem(ItemCreateDto itemCreateDto, Long ownerId) {
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new NoSuchElementException("Пользователь не найден с Id " + ownerId));
+        userExistenceCache.requireExists(ownerId);
+        User owner = userRepository.getReferenceById(ownerId);
+        Long requesterId = null;
+        if (itemCreateDto.getRequestId() != null) {
+            requesterId = itemRequestRepository.findRequesterIdById(itemCreateDto.getRequestId())
+                    .orElseThrow(() -> new NoSuchElementException("Запрос не найден с id: " +
+                            itemCreateDto.getRequestId()));
+        }
+
+        Item savedItem = itemRepository.save(buildItem(itemCreateDto, owner));
+        itemSearchEngine.index(savedItem);
+        if (requesterId != null) {
+            itemAnswerHub.publishAfterCommit(requesterId, itemRequestMapper.toAnswerDto(savedItem));
+        }
+        return itemMapper.toDto(savedItem);
+    }
+
+    @Override
+    @Transactional
+    public ItemBulkResultDto createItems(List<ItemCreateDto> itemCreateDtos, Long ownerId) {
+        if (itemCreateDtos.size() > MAX_BULK_ITEMS) {
+            throw new ValidationException("Нельзя создать за один запрос более " + MAX_BULK_ITEMS + " предметов");
+        }
+        userExistenceCache.requireExists(ownerId);
+        User owner = userRepository.getReferenceById(ownerId);
+
+        // Некорректные строки пропускаются и попадают в отчёт, остальные сохраняются
+        List<ItemBulkErrorDto> errors = new ArrayList<>();
+        List<Integer> validRows = new ArrayList<>(itemCreateDtos.size());
+        for (int row = 0; row < itemCreateDtos.size(); row++) {
+            String error = validate(itemCreateDtos.get(row));
+            if (error != null) {
+                errors.add(ItemBulkErrorDto.builder().row(row).error(error).build());
+            } else {
+                validRows.add(row);
+            }
+        }
+        Map<Long, Long> requesterByRequestId = findRequesters(itemCreateDtos, validRows);
+
+        List<Long> ids = new ArrayList<>(validRows.size());
+        List<Item> batch = new ArrayList<>(BULK_BATCH_SIZE);
+        for (int row : validRows) {
+            batch.add(buildItem(itemCreateDtos.get(row), owner));
+            if (batch.size() == BULK_BATCH_SIZE) {
+                saveBatch(batch, ids, requesterByRequestId);
+            }
+        }
+        saveBatch(batch, ids, requesterByRequestId);
+
+        log.info("Пользователь {} импортировал {} предметов, отклонено строк: {}", ownerId, ids.size(), errors.size());
+        return ItemBulkResultDto.builder()
+                .created(ids.size())
+                .ids(ids)
+                .errors(errors)
+                .build();
+    }
+
+    // Все requestId импорта проверяются одним IN до первой вставки; ссылка на несуществующий запрос — 404 с номером
+    // строки, а не нарушение внешнего ключа посреди пакета
+    private Map<Long, Long> findRequesters(List<ItemCreateDto> itemCreateDtos, List<Integer> rows) {
+        Set<Long> requestIds = rows.stream()
+                .map(row -> itemCreateDtos.get(row).getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> requesterByRequestId = itemRequestRepository.findRequestersByIdIn(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequestRequester::getRequestId, ItemRequestRequester::getRequesterId));
+        for (int row : rows) {
+            Long requestId = itemCreateDtos.get(row).getRequestId();
+            if (requestId != null && !requesterByRequestId.containsKey(requestId)) {
+                throw new NoSuchElementException("Запрос не найден с id: " + requestId + " (строка " + row + ")");
+            }
+        }
+        return requesterByRequestId;
+    }
+
+    private String validate(ItemCreateDto itemCreateDto) {
+        if (itemCreateDto == null) {
+            return "Пустая строка";
+        }
+        Set<ConstraintViolation<ItemCreateDto>> violations = validator.validate(itemCreateDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Пачка уходит одним пакетом INSERT, после чего контекст персистентности очищается: память не растёт с объёмом.
+    // Ответы на запросы уходят авторам после коммита, как и при создании одного предмета
+    private void saveBatch(List<Item> batch, List<Long> ids, Map<Long, Long> requesterByRequestId) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        itemRepository.saveAll(batch);
+        entityManager.flush();
+        for (Item item : batch) {
+            ids.add(item.getId());
+            itemSearchEngine.index(item);
+            if (item.getRequestId() != null) {
+                itemAnswerHub.publishAfterCommit(requesterByRequestId.get(item.getRequestId()),
+                        itemRequestMapper.toAnswerDto(item));
+            }
+        }
+        entityManager.clear();
+        batch.clear();
+    }
 
-        Item item = Item.builder()
+    private Item buildItem(ItemCreateDto itemCreateDto, User owner) {
+        return Item.builder()
                 .name(itemCreateDto.getName())
                 .description(itemCreateDto.getDescription())
                 .available(itemCreateDto.getAvailable())
                 .owner(owner)
                 .requestId(itemCreateDto.getRequestId())
                 .build();
-        Item savedItem = itemRepository.save(item);
-        return itemMapper.toDto(savedItem);
     }
 
     @Override
@@ -60,30 +194,38 @@ public class ItemServiceImpl implements ItemService {
 
         if (item.getOwner().getId().equals(userId)) {
             LocalDateTime now = LocalDateTime.now();
-
-            List<Booking> lastBookings = bookingRepository.findLastBookingForItem(item.getId(), now, PageRequest.of(0, 1));
-            if (!lastBookings.isEmpty()) {
-                dto.setLastBooking(createBookingShortDto(lastBookings.get(0)));
-            }
-
-            List<Booking> nextBookings = bookingRepository.findNextBookingForItem(item.getId(), now, PageRequest.of(0, 1));
-            if (!nextBookings.isEmpty()) {
-                dto.setNextBooking(createBookingShortDto(nextBookings.get(0)));
-            }
+            List<Booking> bookings = bookingRepository.findLastAndNextBookingsForItems(List.of(item.getId()), now);
+            setLastAndNextBookings(dto, bookings, now);
         }
 
         return dto;
     }
 
-
     @Override
     public List<ItemDto> getAllItemsByOwnerId(Long ownerId) {
         List<Item> items = itemRepository.findByOwnerIdOrderById(ownerId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
         List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        List<Comment> comments = commentRepository.findByItemIdInOrderByCreatedDesc(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Бронирования и комментарии загружаются одним запросом на все предметы владельца
+        Map<Long, List<Booking>> bookingsByItemId = bookingRepository.findLastAndNextBookingsForItems(itemIds, now)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        Map<Long, List<CommentResponseDto>> commentsByItemId = commentRepository.findByItemIdInOrderByCreatedDesc(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toDto, Collectors.toList())));
 
         return items.stream()
-                .map(item -> enrichItemWithBookingsAndComments(item, comments))
+                .map(item -> {
+                    ItemDto itemDto = itemMapper.toDto(item);
+                    setLastAndNextBookings(itemDto, bookingsByItemId.getOrDefault(item.getId(), List.of()), now);
+                    itemDto.setComments(commentsByItemId.getOrDefault(item.getId(), List.of()));
+                    return itemDto;
+                })
                 .collect(Collectors.toList());
     }
 
@@ -111,66 +253,115 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
+        itemSearchEngine.index(updatedItem);
         return itemMapper.toDto(updatedItem);
     }
 
     @Override
-    public List<ItemDto> searchAvailableItems(String text) {
+    public List<ItemDto> searchAvailableItems(String text, Integer from, Integer size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.searchAvailableByText(text).stream()
+        return itemSearchEngine.search(text, from, size).stream()
                 .map(itemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-    private ItemDto enrichItemWithBookings(Item item) {
-        ItemDto itemDto = itemMapper.toDto(item);
-
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getAvailability(List.of(itemId), from, to).get(0);
+    }
 
-        // Получаем последнее бронирование
-        List<Booking> lastBookings = bookingRepository.findLastBookingForItem(
-                item.getId(), now, PageRequest.of(0, 1));
-        if (!lastBookings.isEmpty()) {
-            itemDto.setLastBooking(createBookingShortDto(lastBookings.get(0)));
+    // Ответ идёт в порядке запроса; если хотя бы одного предмета нет, весь запрос — 404 со списком отсутствующих id
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        if (itemIds.size() > MAX_AVAILABILITY_ITEMS) {
+            throw new ValidationException("Нельзя запросить доступность более чем " + MAX_AVAILABILITY_ITEMS +
+                    " предметов");
         }
-
-        // Получаем следующее бронирование
-        List<Booking> nextBookings = bookingRepository.findNextBookingForItem(
-                item.getId(), now, PageRequest.of(0, 1));
-        if (!nextBookings.isEmpty()) {
-            itemDto.setNextBooking(createBookingShortDto(nextBookings.get(0)));
+        LocalDateTime periodStart = from != null ? from : LocalDateTime.now();
+        LocalDateTime periodEnd = to != null ? to : periodStart.plusDays(DEFAULT_AVAILABILITY_DAYS);
+        if (!periodStart.isBefore(periodEnd)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
         }
 
-        return itemDto;
-    }
+        Map<Long, Item> itemsById = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        List<Long> missingIds = itemIds.stream()
+                .filter(id -> !itemsById.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+        if (missingIds.size() == 1) {
+            throw new NoSuchElementException("Предмет не найден с id: " + missingIds.get(0));
+        }
+        if (!missingIds.isEmpty()) {
+            throw new NoSuchElementException("Предметы не найдены с id: " + missingIds);
+        }
+        Map<Long, List<BookingInterval>> intervalsByItemId = bookingRepository
+                .findActiveIntervals(itemsById.keySet(), periodStart, periodEnd).stream()
+                .collect(Collectors.groupingBy(BookingInterval::getItemId));
 
-    private ItemDto enrichItemWithBookingsAndComments(Item item) {
-        ItemDto itemDto = enrichItemWithBookings(item);
-        List<CommentResponseDto> comments = getCommentsForItem(item.getId());
-        itemDto.setComments(comments);
-        return itemDto;
+        return itemIds.stream()
+                .map(id -> buildAvailability(itemsById.get(id), intervalsByItemId.getOrDefault(id, List.of()),
+                        periodStart, periodEnd))
+                .collect(Collectors.toList());
     }
 
-    private ItemDto enrichItemWithBookingsAndComments(Item item, List<Comment> allComments) {
-        ItemDto itemDto = enrichItemWithBookings(item);
+    // Занятые окна — объединённые интервалы бронирований внутри периода, свободные — промежутки между ними
+    private ItemAvailabilityDto buildAvailability(Item item, List<BookingInterval> intervals,
+                                                  LocalDateTime from, LocalDateTime to) {
+        List<TimeWindowDto> busy = new ArrayList<>();
+        List<TimeWindowDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingInterval interval : intervals) {
+            LocalDateTime start = interval.getStart().isBefore(from) ? from : interval.getStart();
+            LocalDateTime end = interval.getEnd().isAfter(to) ? to : interval.getEnd();
+            TimeWindowDto last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+            if (last != null && !start.isAfter(last.getEnd())) {
+                if (end.isAfter(last.getEnd())) {
+                    last.setEnd(end);
+                }
+            } else {
+                busy.add(new TimeWindowDto(start, end));
+            }
+        }
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            for (TimeWindowDto window : busy) {
+                if (cursor.isBefore(window.getStart())) {
+                    free.add(new TimeWindowDto(cursor, window.getStart()));
+                }
+                cursor = window.getEnd();
+            }
+            if (cursor.isBefore(to)) {
+                free.add(new TimeWindowDto(cursor, to));
+            }
+        }
 
-        // Фильтруем комментарии для текущего предмета
-        List<CommentResponseDto> comments = allComments.stream()
-                .filter(comment -> comment.getItem().getId().equals(item.getId()))
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+        return ItemAvailabilityDto.builder()
+                .itemId(item.getId())
+                .available(item.getAvailable())
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
 
-        itemDto.setComments(comments);
-        return itemDto;
+    private void setLastAndNextBookings(ItemDto itemDto, List<Booking> bookings, LocalDateTime now) {
+        for (Booking booking : bookings) {
+            if (booking.getEndTime().isBefore(now)) {
+                itemDto.setLastBooking(createBookingShortDto(booking));
+            } else {
+                itemDto.setNextBooking(createBookingShortDto(booking));
+            }
+        }
     }
 
     @Override
     @Transactional
     public CommentResponseDto addComment(Long itemId, CommentRequestDto commentRequestDto, Long userId) {
-        User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("Пользователь не найден с id: " + userId));
+        userExistenceCache.requireExists(userId);
+        User author = userRepository.getReferenceById(userId);
 
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NoSuchElementException("Предмет не найден с id: " + itemId));
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Поиск средствами PostgreSQL: триграммные GIN-индексы из миграции V2__item_search_trigram_indexes.sql
+ * и ранжирование через ts_rank/similarity. Отдельная индексация не требуется.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return itemRepository.searchAvailableByTextRanked(text, size, from);
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void remove(Long itemId) {
+    }
+}
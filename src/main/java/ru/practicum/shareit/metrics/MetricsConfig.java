@@ -0,0 +1,30 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class MetricsConfig {
+
+    // @Timed на сервисах; @MeterTag без выражения берёт toString() параметра (например, BookingState)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        TimedAspect timedAspect = new TimedAspect(meterRegistry);
+        timedAspect.setMeterTagAnnotationHandler(new MeterTagAnnotationHandler(
+                resolverClass -> String::valueOf,
+                expressionResolverClass -> (expression, parameter) -> String.valueOf(parameter)));
+        return timedAspect;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+}
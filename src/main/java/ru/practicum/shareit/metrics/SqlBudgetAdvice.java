@@ -0,0 +1,58 @@
+package ru.practicum.shareit.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.practicum.shareit.exception.SqlBudgetExceededException;
+
+/**
+ * Проверяет бюджет SQL-запросов до записи тела ответа, пока ещё можно добавить заголовок или вернуть ошибку.
+ * Запросы, выполненные после этого момента (сериализация, void-ответы), учитывает только SqlStatementMetricsFilter.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SqlBudgetAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+    private static final String CHECKED_ATTRIBUTE = SqlBudgetAdvice.class.getName() + ".checked";
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final SqlBudgetProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int statements = sqlStatementCounter.count();
+        if (properties.isExposeHeader()) {
+            response.getHeaders().set(STATEMENT_COUNT_HEADER, String.valueOf(statements));
+        }
+        if (!properties.isFailOnExceed() || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        // Тело ошибки пишется через этот же advice — второй раз не проверяем
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        if (httpRequest.getAttribute(CHECKED_ATTRIBUTE) != null) {
+            return body;
+        }
+        httpRequest.setAttribute(CHECKED_ATTRIBUTE, Boolean.TRUE);
+        String endpoint = SqlStatementMetricsFilter.endpointOf(httpRequest);
+        int budget = properties.budgetFor(endpoint);
+        if (statements > budget) {
+            throw new SqlBudgetExceededException("Превышен бюджет SQL-запросов для " + endpoint + ": " + statements
+                    + " > " + budget);
+        }
+        return body;
+    }
+}
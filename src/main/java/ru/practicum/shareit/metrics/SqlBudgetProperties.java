@@ -0,0 +1,28 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Бюджет SQL-запросов на HTTP-запрос. Ключи endpoints — "МЕТОД шаблон", например "GET /bookings/owner".
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.sql-budget")
+public class SqlBudgetProperties {
+    private boolean enabled = true;
+    private int defaultBudget = 10;
+    private Map<String, Integer> endpoints = new HashMap<>();
+    // Превышение бюджета — ошибка запроса (тестовый профиль), иначе только предупреждение в логе
+    private boolean failOnExceed = false;
+    // Заголовок X-Sql-Statement-Count в ответе (не для prod)
+    private boolean exposeHeader = false;
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Считает SQL-запросы, которые Hibernate готовит в текущем потоке между start() и stop().
+ * Вне запроса (планировщики, прогрев индексов) счётчик не активен и ничего не копит.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = counter.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    public int count() {
+        int[] current = counter.get();
+        return current != null ? current[0] : 0;
+    }
+
+    public int stop() {
+        int count = count();
+        counter.remove();
+        return count;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Предмет, добавленный в ответ на запрос.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnswerDto {
+    private Long id;
+    private Long requestId;
+    private String name;
+    private Long ownerId;
+}
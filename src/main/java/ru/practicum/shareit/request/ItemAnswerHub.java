@@ -0,0 +1,171 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Внутрипроцессная рассылка ответов на запросы подключённым по SSE авторам запросов.
+ * <p>
+ * У каждого подписчика своя ограниченная очередь; запись в соединение идёт в отдельном виртуальном потоке,
+ * поэтому медленный клиент не задерживает транзакцию, создавшую предмет. Подписчик, не успевающий разбирать
+ * очередь, отключается: клиент переподключается и перечитывает GET /requests. Подписки живут в памяти
+ * экземпляра — при нескольких экземплярах приложения клиент получает ответы только с того, к которому подключён.
+ */
+@Slf4j
+@Component
+public class ItemAnswerHub {
+    static final String ANSWER_EVENT = "answer";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter overflows;
+
+    public ItemAnswerHub(MeterRegistry meterRegistry,
+                         @Value("${shareit.requests.stream.buffer-size:64}") int bufferSize,
+                         @Value("${shareit.requests.stream.timeout:PT30M}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.overflows = Counter.builder("shareit.requests.stream.overflows")
+                .description("Подписчики, отключённые из-за переполнения очереди")
+                .register(meterRegistry);
+        Gauge.builder("shareit.requests.stream.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Открытые SSE-подписки на ответы")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        try {
+            // Первый комментарий отправляет заголовки сразу, а не вместе с первым ответом
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        register(userId, emitter);
+        return emitter;
+    }
+
+    void register(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        // Завершаем сами, иначе истечение ожидания дойдёт до ErrorHandler как AsyncRequestTimeoutException
+        emitter.onTimeout(emitter::complete);
+    }
+
+    // Рассылка только после коммита: откат создания предмета не должен оставлять доставленный ответ
+    public void publishAfterCommit(Long requesterId, ItemAnswerDto answer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(requesterId, answer);
+                }
+            });
+        } else {
+            publish(requesterId, answer);
+        }
+    }
+
+    void publish(Long requesterId, ItemAnswerDto answer) {
+        Set<Subscriber> targets = subscribers.get(requesterId);
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            if (subscriber.queue.offer(answer)) {
+                scheduleSend(subscriber);
+            } else {
+                overflows.increment();
+                log.warn("Подписчик {} не успевает получать ответы, соединение закрыто", requesterId);
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    int subscriberCount(Long userId) {
+        Set<Subscriber> targets = subscribers.get(userId);
+        return targets == null ? 0 : targets.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(targets -> targets.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    // Не более одного отправляющего потока на подписчика: события уходят в порядке публикации
+    private void scheduleSend(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            ItemAnswerDto answer;
+            while ((answer = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(answer.getId()))
+                        .name(ANSWER_EVENT)
+                        .data(answer, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Событие могло прийти между опустошением очереди и сбросом флага
+        if (!subscriber.queue.isEmpty()) {
+            scheduleSend(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, targets) -> {
+            targets.remove(subscriber);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ItemAnswerDto> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter, BlockingQueue<ItemAnswerDto> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package ru.practicum.shareit.request;
 
-import lombok.Data;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 
-/**
- * TODO Sprint add-item-requests.
- */
-@Data
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "requests")
 public class ItemRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    @Column(name = "description", nullable = false, columnDefinition = "TEXT")
+    @NotBlank(message = "Описание запроса не может быть пустым")
     private String description;
-    private User requestor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requester_id", nullable = false)
+    @NotNull(message = "Автор запроса обязателен")
+    private User requester;
+
+    @Column(name = "created", nullable = false)
+    @NotNull(message = "Дата создания обязательна")
     private LocalDateTime created;
 }
@@ -1,12 +1,57 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @PostMapping
+    public ItemRequestDto createRequest(
+            @Valid @RequestBody ItemRequestCreateDto itemRequestCreateDto,
+            @RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.createRequest(itemRequestCreateDto, userId);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwnRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> getOtherUsersRequests(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "10") Integer size) {
+        if (from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+        return itemRequestService.getOtherUsersRequests(userId, from, size);
+    }
+
+    // Ответы на свои запросы в реальном времени: событие answer на каждый предмет, созданный с requestId
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnswers(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.subscribeToAnswers(userId);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequestById(
+            @PathVariable Long requestId,
+            @RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.getRequestById(requestId, userId);
+    }
 }
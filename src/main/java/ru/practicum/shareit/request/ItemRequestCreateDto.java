@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestCreateDto {
+    @NotBlank(message = "Описание запроса не может быть пустым")
+    private String description;
+}
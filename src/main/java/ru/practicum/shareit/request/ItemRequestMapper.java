@@ -0,0 +1,38 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class ItemRequestMapper {
+    public ItemRequest toEntity(ItemRequestCreateDto itemRequestCreateDto, User requester) {
+        return ItemRequest.builder()
+                .description(itemRequestCreateDto.getDescription())
+                .requester(requester)
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    public ItemRequestDto toDto(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return ItemRequestDto.builder()
+                .id(itemRequest.getId())
+                .description(itemRequest.getDescription())
+                .created(itemRequest.getCreated())
+                .items(items)
+                .build();
+    }
+
+    // Id владельца берётся из прокси без его загрузки
+    public ItemAnswerDto toAnswerDto(Item item) {
+        return ItemAnswerDto.builder()
+                .id(item.getId())
+                .requestId(item.getRequestId())
+                .name(item.getName())
+                .ownerId(item.getOwner().getId())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findByRequesterIdOrderByCreatedDescIdDesc(Long requesterId);
+
+    // Список вместо Page: страница чужих запросов не требует отдельного COUNT
+    List<ItemRequest> findByRequesterIdNot(Long requesterId, Pageable pageable);
+
+    @Query("SELECT r.requester.id FROM ItemRequest r WHERE r.id = :id")
+    Optional<Long> findRequesterIdById(@Param("id") Long id);
+
+    // Авторы набора запросов одним IN: отсутствующих запросов в результате нет
+    @Query("SELECT new ru.practicum.shareit.request.ItemRequestRequester(r.id, r.requester.id) " +
+            "FROM ItemRequest r WHERE r.id IN :ids")
+    List<ItemRequestRequester> findRequestersByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.request;
+
+import lombok.Value;
+
+// Запрос и его автор: кому доставлять ответы на запрос
+@Value
+public class ItemRequestRequester {
+    Long requestId;
+    Long requesterId;
+}
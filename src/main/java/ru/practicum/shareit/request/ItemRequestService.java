@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto createRequest(ItemRequestCreateDto itemRequestCreateDto, Long userId);
+
+    List<ItemRequestDto> getOwnRequests(Long userId);
+
+    List<ItemRequestDto> getOtherUsersRequests(Long userId, Integer from, Integer size);
+
+    ItemRequestDto getRequestById(Long requestId, Long userId);
+
+    SseEmitter subscribeToAnswers(Long userId);
+}
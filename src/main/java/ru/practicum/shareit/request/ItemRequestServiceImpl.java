@@ -0,0 +1,91 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceCache;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+@Timed(value = "shareit.service", histogram = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemRequestMapper itemRequestMapper;
+    private final ItemAnswerHub itemAnswerHub;
+
+    @Override
+    @Transactional
+    public ItemRequestDto createRequest(ItemRequestCreateDto itemRequestCreateDto, Long userId) {
+        userExistenceCache.requireExists(userId);
+        User requester = userRepository.getReferenceById(userId);
+
+        ItemRequest savedRequest = itemRequestRepository.save(itemRequestMapper.toEntity(itemRequestCreateDto,
+                requester));
+        log.info("Пользователь {} создал запрос {}", userId, savedRequest.getId());
+        return itemRequestMapper.toDto(savedRequest, List.of());
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(Long userId) {
+        userExistenceCache.requireExists(userId);
+        return withAnswers(itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    public List<ItemRequestDto> getOtherUsersRequests(Long userId, Integer from, Integer size) {
+        userExistenceCache.requireExists(userId);
+        PageRequest pageable = PageRequest.of(from / size, size,
+                Sort.by(Sort.Direction.DESC, "created").and(Sort.by(Sort.Direction.DESC, "id")));
+        return withAnswers(itemRequestRepository.findByRequesterIdNot(userId, pageable));
+    }
+
+    @Override
+    public ItemRequestDto getRequestById(Long requestId, Long userId) {
+        userExistenceCache.requireExists(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NoSuchElementException("Запрос не найден с id: " + requestId));
+        return withAnswers(List.of(itemRequest)).get(0);
+    }
+
+    @Override
+    public SseEmitter subscribeToAnswers(Long userId) {
+        userExistenceCache.requireExists(userId);
+        return itemAnswerHub.subscribe(userId);
+    }
+
+    // Ответы на всю страницу запросов загружаются одним запросом request_id IN (...)
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findByRequestIdInOrderById(requestIds).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId,
+                        Collectors.mapping(itemRequestMapper::toAnswerDto, Collectors.toList())));
+
+        return requests.stream()
+                .map(request -> itemRequestMapper.toDto(request, answers.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+}
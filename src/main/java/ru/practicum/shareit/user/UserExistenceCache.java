@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+
+/**
+ * Кэш id существующих пользователей для проверок, которым сама сущность не нужна.
+ * Промах проверяется через existsById; удаление пользователя сбрасывает запись после коммита,
+ * а TTL ограничивает устаревание при удалении на другом экземпляре приложения.
+ */
+@Component
+public class UserExistenceCache {
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> knownUserIds;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.user-existence-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${shareit.user-existence-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.knownUserIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, knownUserIds, "userExistence");
+    }
+
+    public void requireExists(Long userId) {
+        if (knownUserIds.getIfPresent(userId) != null) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("Пользователь не найден с id: " + userId);
+        }
+        knownUserIds.put(userId, Boolean.TRUE);
+    }
+
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    knownUserIds.invalidate(userId);
+                }
+            });
+        } else {
+            knownUserIds.invalidate(userId);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchEngine;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -12,9 +19,14 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "shareit.service", histogram = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
 
     @Override
     @Transactional
@@ -63,6 +75,16 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
+        // Предметы пользователя удаляются каскадом в БД, мимо Hibernate, поэтому их кэш и поисковый индекс
+        // обновляем явно
+        itemRepository.findIdsByOwnerId(id).forEach(itemSearchEngine::remove);
         userRepository.deleteById(id);
+        userExistenceCache.evict(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Item.class);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+-- Владелец предмета хранится в бронировании: списки владельца фильтруются и сортируются по одному индексу
+-- bookings без соединения с items. Согласованность обеспечивает составной внешний ключ (item_id, owner_id):
+-- смена владельца предмета каскадно переносится в его бронирования, несовпадающий owner_id не вставить
+ALTER TABLE bookings ADD COLUMN owner_id BIGINT;
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id);
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+
+ALTER TABLE items ADD CONSTRAINT UQ_ITEM_ID_OWNER UNIQUE (id, owner_id);
+ALTER TABLE bookings ADD CONSTRAINT FK_BOOKING_ON_ITEM_OWNER FOREIGN KEY (item_id, owner_id)
+    REFERENCES items (id, owner_id) ON UPDATE CASCADE ON DELETE CASCADE;
+
+-- Списки владельца: все, по статусу и по фазе, в порядке (start_date DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_start ON bookings (owner_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_phase_start ON bookings (owner_id, phase, start_date DESC, id DESC);
+-- Фазовые списки владельца шли через предметы; теперь их обслуживает idx_bookings_owner_phase_start
+DROP INDEX IF EXISTS idx_bookings_item_phase_start;
@@ -62,6 +62,10 @@ CREATE INDEX IF NOT EXISTS idx_items_available ON items (is_available);
 CREATE INDEX IF NOT EXISTS idx_bookings_item_id ON bookings (item_id);
 CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings (booker_id);
 CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings (status);
+-- Keyset-пагинация списков бронирований: фильтр и порядок (start_date DESC, id DESC) из одного индекса
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_owner_id_id ON items (owner_id, id);
 CREATE INDEX IF NOT EXISTS idx_requests_requester_id ON requests (requester_id);
 CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
 CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments (author_id);
\ No newline at end of file
@@ -0,0 +1,9 @@
+-- Одиночные индексы заменены составными: префиксы покрыты idx_bookings_item_start
+-- и idx_bookings_booker_start, а статус сам по себе малоселективен
+DROP INDEX IF EXISTS idx_bookings_item_id;
+DROP INDEX IF EXISTS idx_bookings_booker_id;
+DROP INDEX IF EXISTS idx_bookings_status;
+
+-- Фильтры по состоянию для заказчика: PAST (end_date < now) и WAITING/REJECTED (status)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
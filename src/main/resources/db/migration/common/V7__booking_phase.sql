@@ -0,0 +1,12 @@
+-- Фаза бронирования (FUTURE -> CURRENT -> PAST) хранится в строке: состояния CURRENT/PAST/FUTURE в списках
+-- ищутся по равенству, переходы на границах выполняет BookingPhaseScheduler. Начальное значение считается
+-- по LOCALTIMESTAMP: часовой пояс сессии БД должен совпадать с часовым поясом приложения
+ALTER TABLE bookings ADD COLUMN phase VARCHAR(10) DEFAULT 'FUTURE' NOT NULL;
+UPDATE bookings SET phase = CASE
+    WHEN end_date < LOCALTIMESTAMP THEN 'PAST'
+    WHEN start_date < LOCALTIMESTAMP THEN 'CURRENT'
+    ELSE 'FUTURE' END;
+
+-- Списки по фазе: фильтр и порядок (start_date DESC, id DESC) из одного индекса
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings (item_id, phase, start_date DESC, id DESC);
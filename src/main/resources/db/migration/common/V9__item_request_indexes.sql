@@ -0,0 +1,6 @@
+-- Ответы на запросы: предметы страницы запросов выбираются одним request_id IN (...)
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+-- Собственные запросы пользователя в порядке от новых к старым без сортировки
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC, id DESC);
+-- Страница чужих запросов: обход по created без сортировки всей таблицы
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,4 @@
+-- Проверка пересечений и последнее бронирование: item_id + status + диапазон end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date, start_date);
+-- Следующее бронирование: item_id + status + start_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
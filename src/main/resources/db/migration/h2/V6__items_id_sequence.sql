@@ -0,0 +1,5 @@
+-- id предметов выдаются из последовательности блоками по 50 (allocationSize в Item): IDENTITY отключает
+-- пакетную вставку в Hibernate
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
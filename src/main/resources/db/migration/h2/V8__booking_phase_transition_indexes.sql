@@ -0,0 +1,3 @@
+-- Поиск бронирований, у которых наступила граница фазы (H2 не поддерживает частичные индексы)
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings (phase, start_date);
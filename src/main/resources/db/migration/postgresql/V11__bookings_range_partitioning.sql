@@ -0,0 +1,163 @@
+-- Бронирования секционируются по месяцам start_date: запросы с границей по start_date (следующее бронирование,
+-- проверка пересечений, keyset-страницы, переходы фаз) читают только нужные секции, а старая история уходит
+-- из горячих индексов целой секцией. Миграция копирует таблицу целиком и требует остановки приложения.
+--
+-- Ограничения секционированной таблицы:
+-- * первичный ключ обязан включать ключ секционирования — (id, start_date); уникальность id обеспечивает
+--   последовательность bookings_id_seq, поиск по id проходит индексы первичного ключа всех секций;
+-- * исключающее ограничение (V5) на секционированной таблице действовало бы только внутри секции и не видело
+--   пересечений бронирований, начинающихся в разных месяцах. Поэтому активные периоды (APPROVED, WAITING)
+--   дублируются триггером в несекционированную booking_item_periods, и ограничение стоит на ней.
+CREATE TABLE bookings_partitioned (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    phase VARCHAR(10) DEFAULT 'FUTURE' NOT NULL,
+    owner_id BIGINT NOT NULL
+) PARTITION BY RANGE (start_date);
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_partitioned RENAME TO bookings;
+
+-- Бронирования за пределами созданных месяцев (далеко вперёд) попадают в DEFAULT
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Периоды активных бронирований по предметам, без секций: пересечение ловится независимо от месяца начала
+CREATE TABLE booking_item_periods (
+    booking_id BIGINT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    period TSRANGE NOT NULL,
+    CONSTRAINT ex_booking_item_periods_no_overlap EXCLUDE USING gist (item_id WITH =, period WITH &&)
+);
+
+-- Перенос строки между секциями при смене start_date вызывает DELETE и INSERT, а не UPDATE
+CREATE OR REPLACE FUNCTION bookings_sync_item_period() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM booking_item_periods WHERE booking_id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.status IN ('APPROVED', 'WAITING') THEN
+        INSERT INTO booking_item_periods (booking_id, item_id, period)
+        VALUES (NEW.id, NEW.item_id, tsrange(NEW.start_date, NEW.end_date));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секция месяца bookings_pYYYYMM; строки этого месяца, успевшие попасть в DEFAULT, переносятся в неё.
+-- Удаление из DEFAULT снимает их периоды, поэтому после подключения секции они возвращаются в той же транзакции.
+-- Возвращает имя созданной секции или NULL, если она уже есть. Вызывается BookingPartitionMaintainer
+CREATE OR REPLACE FUNCTION bookings_ensure_partition(p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month::TIMESTAMP);
+    v_to DATE := date_trunc('month', p_month::TIMESTAMP) + INTERVAL '1 month';
+    v_name TEXT := 'bookings_p' || to_char(p_month, 'YYYYMM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('bookings_partitions'));
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE start_date >= %L AND start_date < %L '
+                       || 'RETURNING *) INSERT INTO %I SELECT * FROM moved', v_from, v_to, v_name);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    EXECUTE format('INSERT INTO booking_item_periods (booking_id, item_id, period) '
+                       || 'SELECT id, item_id, tsrange(start_date, end_date) FROM %I '
+                       || 'WHERE status IN (''APPROVED'', ''WAITING'')', v_name);
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Архив: секции месяцев до p_before, в которых все бронирования уже завершились (PAST), отсоединяются и
+-- переносятся в схему bookings_archive вместе с индексами и внешними ключами, их периоды удаляются. Вернуть секцию:
+-- ALTER TABLE bookings_archive.bookings_pYYYYMM SET SCHEMA public; затем ATTACH PARTITION с теми же границами
+-- и INSERT её активных периодов в booking_item_periods
+CREATE SCHEMA IF NOT EXISTS bookings_archive;
+
+CREATE OR REPLACE FUNCTION bookings_archive_partitions(p_before DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    v_name TEXT;
+    v_active BOOLEAN;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('bookings_partitions'));
+    FOR v_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass AND c.relname ~ '^bookings_p[0-9]{6}$'
+          AND to_date(substr(c.relname, 11), 'YYYYMM') + INTERVAL '1 month' <= p_before
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE phase <> ''PAST'')', v_name) INTO v_active;
+        IF NOT v_active THEN
+            EXECUTE format('DELETE FROM booking_item_periods p USING %I b WHERE p.booking_id = b.id', v_name);
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', v_name);
+            EXECUTE format('ALTER TABLE %I SET SCHEMA bookings_archive', v_name);
+            RETURN NEXT v_name;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секции на всю имеющуюся историю и три месяца вперёд, затем перенос данных
+DO $$
+DECLARE
+    v_month TIMESTAMP;
+BEGIN
+    FOR v_month IN
+        SELECT generate_series(
+                   date_trunc('month', LEAST(COALESCE(MIN(start_date), LOCALTIMESTAMP), LOCALTIMESTAMP)),
+                   date_trunc('month', GREATEST(COALESCE(MAX(start_date), LOCALTIMESTAMP),
+                                                LOCALTIMESTAMP + INTERVAL '3 months')),
+                   INTERVAL '1 month')
+        FROM bookings_unpartitioned
+    LOOP
+        PERFORM bookings_ensure_partition(v_month::DATE);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase, owner_id)
+SELECT id, start_date, end_date, item_id, booker_id, status, phase, owner_id FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+-- Периоды заполняются одним INSERT после копирования, дальше их ведёт триггер (он наследуется всеми секциями,
+-- в том числе подключёнными позже)
+INSERT INTO booking_item_periods (booking_id, item_id, period)
+SELECT id, item_id, tsrange(start_date, end_date) FROM bookings WHERE status IN ('APPROVED', 'WAITING');
+
+CREATE TRIGGER trg_bookings_item_period
+    AFTER INSERT OR DELETE OR UPDATE OF item_id, start_date, end_date, status ON bookings
+    FOR EACH ROW EXECUTE FUNCTION bookings_sync_item_period();
+
+CREATE SEQUENCE bookings_id_seq OWNED BY bookings.id;
+SELECT setval('bookings_id_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 1, false);
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_id_seq');
+
+-- Ограничения и индексы объявляются на родительской таблице и создаются в каждой секции,
+-- в том числе в секциях, подключаемых позже
+ALTER TABLE bookings ADD CONSTRAINT pk_booking PRIMARY KEY (id, start_date);
+ALTER TABLE bookings ADD CONSTRAINT FK_BOOKING_ON_ITEM FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE;
+ALTER TABLE bookings ADD CONSTRAINT FK_BOOKING_ON_BOOKER FOREIGN KEY (booker_id) REFERENCES users (id)
+    ON DELETE CASCADE;
+ALTER TABLE bookings ADD CONSTRAINT FK_BOOKING_ON_ITEM_OWNER FOREIGN KEY (item_id, owner_id)
+    REFERENCES items (id, owner_id) ON UPDATE CASCADE ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_start ON bookings (owner_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_phase_start ON bookings (owner_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_active_range ON bookings (item_id, end_date, start_date)
+    WHERE status IN ('APPROVED', 'WAITING');
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_end ON bookings (item_id, end_date DESC)
+    WHERE status = 'APPROVED';
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_start ON bookings (item_id, start_date)
+    WHERE status = 'APPROVED';
+CREATE INDEX IF NOT EXISTS idx_bookings_active_end ON bookings (end_date) WHERE phase IN ('FUTURE', 'CURRENT');
+CREATE INDEX IF NOT EXISTS idx_bookings_future_start ON bookings (start_date) WHERE phase = 'FUTURE';
@@ -0,0 +1,6 @@
+-- Полнотекстовый поиск предметов (только PostgreSQL)
+
+-- Триграммные индексы для поиска предметов по подстроке (LIKE '%text%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (LOWER(name) gin_trgm_ops) WHERE is_available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (LOWER(description) gin_trgm_ops) WHERE is_available;
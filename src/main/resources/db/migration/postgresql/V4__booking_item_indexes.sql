@@ -0,0 +1,8 @@
+-- Проверка пересечений (existsOverlappingBookings*): в индекс попадают только активные бронирования
+CREATE INDEX IF NOT EXISTS idx_bookings_item_active_range ON bookings (item_id, end_date, start_date)
+    WHERE status IN ('APPROVED', 'WAITING');
+-- Последнее и следующее подтверждённое бронирование предмета
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_end ON bookings (item_id, end_date DESC)
+    WHERE status = 'APPROVED';
+CREATE INDEX IF NOT EXISTS idx_bookings_item_approved_start ON bookings (item_id, start_date)
+    WHERE status = 'APPROVED';
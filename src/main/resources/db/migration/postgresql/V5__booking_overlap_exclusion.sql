@@ -0,0 +1,6 @@
+-- Пересечение активных бронирований одного предмета запрещено на уровне БД:
+-- последний рубеж на случай записи в обход блокировки предмета в BookingServiceImpl
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('APPROVED', 'WAITING'));
@@ -0,0 +1,7 @@
+-- id предметов выдаются из последовательности блоками по 50 (allocationSize в Item): IDENTITY отключает
+-- пакетную вставку в Hibernate. Pooled-оптимизатор берёт диапазон (nextval - 50, nextval],
+-- поэтому первый nextval должен быть не меньше MAX(id) + 50
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('items_seq', COALESCE(MAX(id), 0) + 50, false) FROM items;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
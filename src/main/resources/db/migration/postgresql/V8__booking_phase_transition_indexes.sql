@@ -0,0 +1,4 @@
+-- Поиск бронирований, у которых наступила граница фазы: частичные индексы содержат только незавершённые строки
+-- и не растут вместе с историей
+CREATE INDEX IF NOT EXISTS idx_bookings_active_end ON bookings (end_date) WHERE phase IN ('FUTURE', 'CURRENT');
+CREATE INDEX IF NOT EXISTS idx_bookings_future_start ON bookings (start_date) WHERE phase = 'FUTURE';
@@ -0,0 +1,156 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentRequestDto;
+import ru.practicum.shareit.item.CommentResponseDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestCreateDto;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * open-in-view выключен: сессия закрывается вместе с транзакцией сервиса, и всё, что уходит в JSON, должно быть
+ * загружено до этого. Проверяются ответы, собранные из ленивых связей: предмет с бронированиями и отзывами,
+ * запросы с ответами, бронирования с заказчиком и предметом.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LazyAssociationSerializationTest {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private ItemRequestService itemRequestService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User owner;
+	private User booker;
+	private Item item;
+	private Long requestId;
+	private Booking past;
+	private Booking next;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		booker = user("booker");
+		requestId = itemRequestService.createRequest(ItemRequestCreateDto.builder().description("нужна палатка")
+				.build(), booker.getId()).getId();
+		item = itemRepository.save(Item.builder().name("tent").description("lazy").available(true).owner(owner)
+				.requestId(requestId).build());
+		LocalDateTime now = LocalDateTime.now();
+		past = booking(now.plusDays(1), now.plusDays(2));
+		// Прошедшие даты @Future не пропустит, поэтому бронирование сдвигается в обход JPA
+		jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ?, phase = 'PAST' WHERE id = ?",
+				Timestamp.valueOf(now.minusDays(3)), Timestamp.valueOf(now.minusDays(2)), past.getId());
+		next = booking(now.plusDays(5), now.plusDays(6));
+	}
+
+	@Test
+	void itemWithBookingsAndCommentsIsSerialized() {
+		ResponseEntity<CommentResponseDto> comment = exchange(HttpMethod.POST, "/items/" + item.getId() + "/comment",
+				booker, CommentRequestDto.builder().text("отличная палатка").build(), CommentResponseDto.class);
+		assertEquals(HttpStatus.OK, comment.getStatusCode());
+		assertEquals(booker.getName(), comment.getBody().getAuthorName());
+
+		ItemDto single = get("/items/" + item.getId(), owner, ItemDto.class);
+		ItemDto listed = Arrays.stream(get("/items", owner, ItemDto[].class))
+				.filter(dto -> dto.getId().equals(item.getId()))
+				.findFirst()
+				.orElseThrow();
+
+		for (ItemDto dto : List.of(single, listed)) {
+			assertEquals(past.getId(), dto.getLastBooking().getId());
+			assertEquals(next.getId(), dto.getNextBooking().getId());
+			assertEquals(booker.getId(), dto.getLastBooking().getBookerId());
+			assertEquals(List.of(booker.getName()),
+					dto.getComments().stream().map(CommentResponseDto::getAuthorName).toList());
+		}
+	}
+
+	@Test
+	void requestsWithAnswersAreSerialized() {
+		ItemRequestDto own = get("/requests", booker, ItemRequestDto[].class)[0];
+		ItemRequestDto byId = get("/requests/" + requestId, owner, ItemRequestDto.class);
+		ItemRequestDto other = Arrays.stream(get("/requests/all", owner, ItemRequestDto[].class))
+				.filter(dto -> dto.getId().equals(requestId))
+				.findFirst()
+				.orElseThrow();
+
+		for (ItemRequestDto dto : List.of(own, byId, other)) {
+			assertEquals(requestId, dto.getId());
+			assertEquals(1, dto.getItems().size());
+			assertEquals(item.getId(), dto.getItems().get(0).getId());
+			assertEquals(owner.getId(), dto.getItems().get(0).getOwnerId());
+		}
+	}
+
+	@Test
+	void bookingsWithBookerAndItemAreSerialized() {
+		BookingResponseDto single = get("/bookings/" + next.getId(), booker, BookingResponseDto.class);
+		BookingResponseDto[] byBooker = get("/bookings?state=ALL", booker, BookingResponseDto[].class);
+		BookingResponseDto[] byOwner = get("/bookings/owner?state=ALL", owner, BookingResponseDto[].class);
+
+		for (BookingResponseDto dto : List.of(single, byBooker[0], byOwner[0])) {
+			assertEquals(next.getId(), dto.getId());
+			assertEquals(booker.getName(), dto.getBooker().getName());
+			assertEquals(item.getName(), dto.getItem().getName());
+			assertEquals(item.getId(), dto.getItem().getId());
+		}
+		assertEquals(2, byBooker.length);
+		assertEquals(2, byOwner.length);
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name)
+				.email(name + "-" + UUID.randomUUID() + "@example.com").build());
+	}
+
+	private Booking booking(LocalDateTime start, LocalDateTime end) {
+		return bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+				.startTime(start).endTime(end).build());
+	}
+
+	private <T> T get(String path, User user, Class<T> type) {
+		ResponseEntity<T> response = exchange(HttpMethod.GET, path, user, null, type);
+		assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+		return response.getBody();
+	}
+
+	private <T> ResponseEntity<T> exchange(HttpMethod method, String path, User user, Object body, Class<T> type) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(user.getId()));
+		return restTemplate.exchange(path, method, new HttpEntity<>(body, headers), type);
+	}
+}
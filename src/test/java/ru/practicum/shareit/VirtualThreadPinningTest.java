@@ -0,0 +1,148 @@
+package ru.practicum.shareit;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingRequestDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Транзакционные пути под виртуальными потоками не должны блокироваться, удерживая монитор (synchronized):
+ * такой поток занимает carrier-поток целиком. Пул соединений меньше числа задач, чтобы потоки ждали Hikari.
+ * События внутри H2 не учитываются — это ограничение тестовой СУБД, драйвер PostgreSQL построен на j.u.c. locks.
+ */
+@SpringBootTest(properties = {
+		"spring.threads.virtual.enabled=true",
+		"spring.datasource.hikari.maximum-pool-size=4"
+})
+class VirtualThreadPinningTest {
+	private static final int TASKS = 64;
+	private static final int ITEMS = 4;
+	private static final long TIMEOUT_SECONDS = 60;
+
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<User> users = new ArrayList<>();
+	private final List<Item> items = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(User.builder().name("owner").email("owner-pinning@example.com").build());
+		users.add(owner);
+		for (int i = 0; i < TASKS; i++) {
+			users.add(userRepository.save(User.builder().name("booker" + i).email("booker-pinning" + i + "@example.com")
+					.build()));
+		}
+		for (int i = 0; i < ITEMS; i++) {
+			items.add(itemRepository.save(Item.builder().name("item " + i).description("virtual threads")
+					.available(true).owner(owner).build()));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll(users);
+	}
+
+	@Test
+	void transactionalPathsDoNotPinCarrierThreads() throws Exception {
+		Path dump = Files.createTempFile("pinning", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+			recording.start();
+			runMixedWorkload();
+			recording.stop();
+			recording.dump(dump);
+		}
+
+		List<String> pinnedOutsideH2 = RecordingFile.readAllEvents(dump).stream()
+				.filter(event -> event.getStackTrace() != null)
+				.filter(event -> event.getStackTrace().getFrames().stream()
+						.noneMatch(frame -> frame.getMethod().getType().getName().startsWith("org.h2.")))
+				.map(VirtualThreadPinningTest::describe)
+				.collect(Collectors.toList());
+		Files.deleteIfExists(dump);
+
+		assertTrue(pinnedOutsideH2.isEmpty(), "Виртуальный поток заблокирован внутри synchronized:\n"
+				+ String.join("\n\n", pinnedOutsideH2));
+	}
+
+	private void runMixedWorkload() throws Exception {
+		Long ownerId = users.get(0).getId();
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		List<Future<?>> futures = new ArrayList<>();
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		for (int i = 0; i < TASKS; i++) {
+			int task = i;
+			Long bookerId = users.get(i + 1).getId();
+			Long itemId = items.get(i % ITEMS).getId();
+			futures.add(executor.submit(() -> {
+				switch (task % 4) {
+					case 0:
+						LocalDateTime slot = start.plusHours(task * 2L);
+						return bookingService.createBooking(BookingRequestDto.builder()
+								.itemId(itemId).start(slot).end(slot.plusHours(1)).build(), bookerId);
+					case 1:
+						return bookingService.getOwnerBookings(ownerId, BookingState.ALL, PageRequest.of(0, 20));
+					case 2:
+						return itemService.getAllItemsByOwnerId(ownerId);
+					default:
+						return itemService.searchAvailableItems("virtual", 0, 10);
+				}
+			}));
+		}
+		executor.shutdown();
+		// Поток, ждущий соединение внутри synchronized, держит carrier; при малом числе ядер это взаимоблокировка
+		if (!executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			executor.shutdownNow();
+			fail("Задачи не завершились за " + TIMEOUT_SECONDS + " с: виртуальные потоки, вероятно, "
+					+ "заблокированы с удержанием монитора");
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	private static String describe(RecordedEvent event) {
+		return event.getStackTrace().getFrames().stream()
+				.limit(25)
+				.map(RecordedFrame::getMethod)
+				.map(method -> method.getType().getName() + "." + method.getName())
+				.collect(Collectors.joining("\n  at "));
+	}
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingAvailabilityIndexTest {
+	private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	@Test
+	void treeTreatsEndsAsExclusiveAndSkipsExcludedBooking() {
+		BookingIntervalTree tree = new BookingIntervalTree();
+		tree.insert(interval(1L, 10, 20));
+		tree.insert(interval(2L, 30, 40));
+
+		assertFalse(tree.overlaps(at(20), at(30), null));
+		assertFalse(tree.overlaps(at(0), at(10), null));
+		assertTrue(tree.overlaps(at(12), at(15), null));
+		assertTrue(tree.overlaps(at(5), at(45), null));
+		assertTrue(tree.overlaps(at(19), at(31), null));
+		assertFalse(tree.overlaps(at(10), at(20), 1L));
+		assertTrue(tree.overlaps(at(15), at(35), 1L));
+	}
+
+	// Одно длинное бронирование не должно ни прятать, ни выдумывать пересечения среди коротких
+	@Test
+	void treeMatchesBruteForceWithLongBookingAndRemovals() {
+		Random random = new Random(7);
+		BookingIntervalTree tree = new BookingIntervalTree();
+		List<BookingInterval> intervals = new ArrayList<>();
+		BookingInterval longBooking = interval(0L, 0, 1_000_000);
+		tree.insert(longBooking);
+		intervals.add(longBooking);
+		for (long id = 1; id <= 2_000; id++) {
+			int start = random.nextInt(2_000_000);
+			BookingInterval interval = interval(id, start, start + 1 + random.nextInt(50));
+			tree.insert(interval);
+			intervals.add(interval);
+		}
+		for (int i = 0; i < 500; i++) {
+			BookingInterval removed = intervals.remove(random.nextInt(intervals.size()));
+			assertTrue(tree.remove(removed));
+		}
+		assertEquals(intervals.size(), tree.size());
+
+		for (int i = 0; i < 5_000; i++) {
+			int start = random.nextInt(2_100_000);
+			LocalDateTime from = at(start);
+			LocalDateTime to = at(start + 1 + random.nextInt(100));
+			Long excluded = random.nextBoolean() ? intervals.get(random.nextInt(intervals.size())).getBookingId() : null;
+			boolean expected = intervals.stream().anyMatch(interval -> !interval.getBookingId().equals(excluded)
+					&& interval.getStart().isBefore(to) && interval.getEnd().isAfter(from));
+			assertEquals(expected, tree.overlaps(from, to, excluded), "[" + from + ", " + to + ") без " + excluded);
+		}
+	}
+
+	@Test
+	void treeEvictsEndedIntervalsAndStaysSearchable() {
+		BookingIntervalTree tree = new BookingIntervalTree();
+		for (long id = 1; id <= 100; id++) {
+			tree.insert(interval(id, (int) id * 10, (int) id * 10 + 5));
+		}
+
+		assertEquals(50, tree.removeEndedBy(at(505)));
+		assertEquals(50, tree.size());
+		assertFalse(tree.overlaps(at(0), at(505), null));
+		assertTrue(tree.overlaps(at(504), at(511), null));
+		assertEquals(50, tree.removeEndedBy(at(10_000)));
+		assertTrue(tree.isEmpty());
+	}
+
+	@Test
+	void indexEvictsEndedBookingsAndSendsEarlierProbesToDatabase() {
+		BookingAvailabilityIndex index = new BookingAvailabilityIndex(Mockito.mock(BookingRepository.class), true);
+		index.warmUp();
+		LocalDateTime now = LocalDateTime.now();
+		index.add(booking(1L, 10L, now.minusHours(2), now.minusHours(1)));
+		index.add(booking(2L, 10L, now.plusHours(1), now.plusHours(2)));
+		index.add(booking(3L, 20L, now.minusHours(3), now.minusMinutes(30)));
+
+		index.evictEnded();
+
+		assertEquals(1, index.size());
+		assertTrue(index.mayOverlap(10L, now.minusHours(2), now.minusHours(1), null));
+		assertTrue(index.mayOverlap(10L, now.plusMinutes(90), now.plusHours(3), null));
+		assertFalse(index.mayOverlap(10L, now.plusHours(2), now.plusHours(3), null));
+		assertFalse(index.mayOverlap(20L, now.plusHours(1), now.plusHours(2), null));
+
+		index.add(booking(4L, 20L, now.plusHours(1), now.plusHours(2)));
+		assertTrue(index.mayOverlap(20L, now.plusMinutes(90), now.plusHours(3), null));
+	}
+
+	private static BookingInterval interval(Long bookingId, int startMinutes, int endMinutes) {
+		return new BookingInterval(bookingId, 1L, at(startMinutes), at(endMinutes));
+	}
+
+	private static LocalDateTime at(int minutes) {
+		return BASE.plusMinutes(minutes);
+	}
+
+	private static Booking booking(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+		return Booking.builder().id(id).item(Item.builder().id(itemId).build()).startTime(start).endTime(end)
+				.status(BookingStatus.WAITING).build();
+	}
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.metrics.SqlBudgetAdvice;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingBatchApprovalTest {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User owner;
+	private User booker;
+	private Item drill;
+	private Item saw;
+	private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+	@BeforeEach
+	void setUp() {
+		// HttpURLConnection не поддерживает PATCH
+		restTemplate.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+		owner = user("owner");
+		booker = user("booker");
+		drill = item("drill", owner);
+		saw = item("saw", owner);
+	}
+
+	@Test
+	void bookingsAreApprovedInOneTransactionWithFewStatements() {
+		Booking first = waiting(drill, 0, 1);
+		Booking second = waiting(drill, 2, 3);
+		Booking third = waiting(saw, 0, 1);
+
+		ResponseEntity<BookingResponseDto[]> response = patch(List.of(third.getId(), first.getId(), second.getId()),
+				true, owner, BookingResponseDto[].class);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(third.getId(), first.getId(), second.getId()),
+				List.of(response.getBody()).stream().map(BookingResponseDto::getId).toList());
+		assertTrue(List.of(response.getBody()).stream().allMatch(b -> b.getStatus() == BookingStatus.APPROVED));
+		assertEquals(BookingStatus.APPROVED, bookingRepository.findById(second.getId()).orElseThrow().getStatus());
+		assertEquals("4", response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+	}
+
+	@Test
+	void batchIsRejectedAsWholeWhenOneBookingBelongsToAnotherOwner() {
+		Booking own = waiting(drill, 0, 1);
+		Booking foreign = waiting(item("ladder", user("stranger")), 0, 1);
+
+		ResponseEntity<String> response = patch(List.of(own.getId(), foreign.getId()), true, owner, String.class);
+
+		assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+		assertEquals(BookingStatus.WAITING, bookingRepository.findById(own.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void overlapsWithinBatchAndWithDatabaseAreRejected() {
+		Booking first = waiting(drill, 0, 2);
+		Booking overlapping = waiting(drill, 1, 3);
+		Booking other = waiting(saw, 0, 2);
+		waiting(saw, 1, 3);
+
+		assertEquals(HttpStatus.BAD_REQUEST, patch(List.of(first.getId(), overlapping.getId()), true, owner,
+				String.class).getStatusCode());
+		ResponseEntity<String> response = patch(List.of(other.getId()), true, owner, String.class);
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertTrue(response.getBody().contains(String.valueOf(other.getId())), response.getBody());
+	}
+
+	@Test
+	void rejectedBookingsCannotBeProcessedAgain() {
+		Booking first = waiting(drill, 0, 1);
+		Booking second = waiting(drill, 0, 1);
+
+		assertEquals(HttpStatus.OK, patch(List.of(first.getId(), second.getId()), false, owner, String.class)
+				.getStatusCode());
+		assertEquals(BookingStatus.REJECTED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+		assertEquals(HttpStatus.CONFLICT, patch(List.of(first.getId()), true, owner, String.class).getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, patch(List.of(Long.MAX_VALUE), true, owner, String.class)
+				.getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, patch(List.of(), true, owner, String.class).getStatusCode());
+	}
+
+	private <T> ResponseEntity<T> patch(List<Long> ids, boolean approved, User user, Class<T> type) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(user.getId()));
+		BookingBatchRequestDto body = BookingBatchRequestDto.builder().bookingIds(ids).approved(approved).build();
+		return restTemplate.exchange("/bookings/batch", HttpMethod.PATCH, new HttpEntity<>(body, headers), type);
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(name + "-" + UUID.randomUUID() + "@example.com")
+				.build());
+	}
+
+	private Item item(String name, User itemOwner) {
+		return itemRepository.save(Item.builder().name(name).description("batch").available(true).owner(itemOwner)
+				.build());
+	}
+
+	// Бронирования сохраняются в обход сервиса, чтобы можно было создать пересечения
+	private Booking waiting(Item item, int fromDay, int toDay) {
+		return bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+				.startTime(start.plusDays(fromDay)).endTime(start.plusDays(toDay)).build());
+	}
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest
+class BookingConcurrencyTest {
+	private static final int THREADS = 16;
+
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<User> users = new ArrayList<>();
+	private Item item;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(User.builder().name("owner").email("owner-race@example.com").build());
+		users.add(owner);
+		for (int i = 0; i < THREADS; i++) {
+			users.add(userRepository.save(User.builder().name("booker" + i).email("booker-race" + i + "@example.com")
+					.build()));
+		}
+		item = itemRepository.save(Item.builder().name("hot item").description("popular").available(true)
+				.owner(owner).build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		// Предметы и бронирования удаляются каскадно вместе с пользователями
+		userRepository.deleteAll(users);
+	}
+
+	@Test
+	void concurrentOverlappingRequestsCreateSingleBooking() throws Exception {
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+		List<Throwable> outcomes = hammer(i -> BookingRequestDto.builder()
+				.itemId(item.getId()).start(start).end(start.plusHours(2 + i)).build());
+
+		assertEquals(1, outcomes.stream().filter(outcome -> outcome == null).count());
+		outcomes.stream()
+				.filter(outcome -> outcome != null)
+				.forEach(outcome -> assertInstanceOf(ValidationException.class, outcome));
+		assertEquals(1, bookingRepository.findByOwnerIdOrderByStartTimeDesc(users.get(0).getId(),
+				PageRequest.of(0, THREADS)).size());
+	}
+
+	@Test
+	void concurrentDisjointRequestsAllSucceed() throws Exception {
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+		List<Throwable> outcomes = hammer(i -> BookingRequestDto.builder()
+				.itemId(item.getId()).start(start.plusDays(i)).end(start.plusDays(i).plusHours(1)).build());
+
+		outcomes.forEach(outcome -> assertEquals(null, outcome));
+		assertEquals(THREADS, bookingRepository.findByOwnerIdOrderByStartTimeDesc(users.get(0).getId(),
+				PageRequest.of(0, THREADS)).size());
+	}
+
+	// Запускает THREADS одновременных createBooking; для каждого потока возвращает исключение или null
+	private List<Throwable> hammer(IntFunction<BookingRequestDto> requestFactory) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch startGate = new CountDownLatch(1);
+		List<Future<BookingResponseDto>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			BookingRequestDto request = requestFactory.apply(i);
+			Long bookerId = users.get(i + 1).getId();
+			Callable<BookingResponseDto> task = () -> {
+				startGate.await();
+				return bookingService.createBooking(request, bookerId);
+			};
+			futures.add(executor.submit(task));
+		}
+		startGate.countDown();
+
+		List<Throwable> outcomes = new ArrayList<>();
+		for (Future<BookingResponseDto> future : futures) {
+			try {
+				future.get();
+				outcomes.add(null);
+			} catch (ExecutionException e) {
+				outcomes.add(e.getCause());
+			}
+		}
+		executor.shutdown();
+		return outcomes;
+	}
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingKeysetPaginationTest {
+	// Группы с одинаковым началом: 3, 2 и 2 бронирования, страница по 2 разрезает каждую группу
+	private static final int[] SAME_START_GROUPS = {3, 2, 2};
+	private static final int PAGE_SIZE = 2;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User owner;
+	private User booker;
+	private final List<Booking> bookings = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString();
+		owner = userRepository.save(User.builder().name("owner").email("owner-" + suffix + "@example.com").build());
+		booker = userRepository.save(User.builder().name("booker").email("booker-" + suffix + "@example.com").build());
+		LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+		for (int group = 0; group < SAME_START_GROUPS.length; group++) {
+			for (int i = 0; i < SAME_START_GROUPS[group]; i++) {
+				Item item = itemRepository.save(Item.builder().name("item").description("keyset").available(true)
+						.owner(owner).build());
+				bookings.add(bookingRepository.save(Booking.builder().item(item).booker(booker)
+						.status(BookingStatus.WAITING).startTime(start.plusDays(group))
+						.endTime(start.plusDays(group).plusHours(1)).build()));
+			}
+		}
+	}
+
+	@Test
+	void bookerPagesBreakStartTiesByIdWithoutGapsOrDuplicates() throws Exception {
+		assertEquals(expectedOrder(), pageThrough("/bookings?state=ALL", booker.getId()));
+	}
+
+	@Test
+	void ownerPagesBreakStartTiesByIdWithoutGapsOrDuplicates() throws Exception {
+		assertEquals(expectedOrder(), pageThrough("/bookings/owner?state=WAITING", owner.getId()));
+	}
+
+	@Test
+	void cursorRequiresBothStartAndId() {
+		String afterStart = "afterStart=" + bookings.get(0).getStartTime();
+		String afterId = "afterId=" + bookings.get(0).getId();
+
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings?" + afterStart, booker.getId()).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings?" + afterId, booker.getId()).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings/owner?" + afterStart, owner.getId()).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings/owner?" + afterId, owner.getId()).getStatusCode());
+	}
+
+	// Первая страница — from=0, следующие — по курсору из последней строки предыдущей страницы
+	private List<Long> pageThrough(String path, long userId) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		BookingResponseDto[] page = fetch(path + "&from=0&size=" + PAGE_SIZE, userId);
+		while (page.length > 0) {
+			assertTrue(page.length <= PAGE_SIZE);
+			for (BookingResponseDto booking : page) {
+				ids.add(booking.getId());
+			}
+			BookingResponseDto last = page[page.length - 1];
+			page = fetch(path + "&size=" + PAGE_SIZE + "&afterStart=" + last.getStart() + "&afterId=" + last.getId(),
+					userId);
+		}
+		return ids;
+	}
+
+	private List<Long> expectedOrder() {
+		return bookings.stream()
+				.sorted(Comparator.comparing(Booking::getStartTime).thenComparing(Booking::getId).reversed())
+				.map(Booking::getId)
+				.collect(Collectors.toList());
+	}
+
+	private BookingResponseDto[] fetch(String path, long userId) throws Exception {
+		ResponseEntity<String> response = get(path, userId);
+		assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+		return objectMapper.readValue(response.getBody(), BookingResponseDto[].class);
+	}
+
+	private ResponseEntity<String> get(String path, long userId) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(userId));
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+}
@@ -0,0 +1,253 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Миграция V11 на настоящем PostgreSQL: в контейнере, если доступен Docker, иначе в пустой базе из
+// -Dshareit.test.postgres.url (пользователь и пароль — shareit.test.postgres.user и .password). Без них тест пропускается
+@SpringBootTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+		"shareit.booking.partitions.enabled=true",
+		"shareit.booking.phase-scheduler.enabled=false"})
+@EnabledIf("postgresAvailable")
+class BookingPartitioningPostgresTest {
+	private static final String URL_PROPERTY = "shareit.test.postgres.url";
+	private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+	private static final Pattern PARTITION = Pattern.compile("\\bon (bookings_(?:p\\d{6}|default))\\b");
+
+	private static PostgreSQLContainer<?> postgres;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+
+	private User owner;
+	private User booker;
+	private Item item;
+
+	static boolean postgresAvailable() {
+		return System.getProperty(URL_PROPERTY) != null || DockerClientFactory.instance().isDockerAvailable();
+	}
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		if (System.getProperty(URL_PROPERTY) != null) {
+			registry.add("spring.datasource.url", () -> System.getProperty(URL_PROPERTY));
+			registry.add("spring.datasource.username", () -> System.getProperty("shareit.test.postgres.user",
+					"postgres"));
+			registry.add("spring.datasource.password", () -> System.getProperty("shareit.test.postgres.password",
+					""));
+		} else {
+			if (postgres == null) {
+				postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+				postgres.start();
+			}
+			registry.add("spring.datasource.url", postgres::getJdbcUrl);
+			registry.add("spring.datasource.username", postgres::getUsername);
+			registry.add("spring.datasource.password", postgres::getPassword);
+		}
+		registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+	}
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString();
+		owner = userRepository.save(User.builder().name("owner").email("owner-" + suffix + "@example.com").build());
+		booker = userRepository.save(User.builder().name("booker").email("booker-" + suffix + "@example.com").build());
+		item = itemRepository.save(Item.builder().name("tent").description("partitions").available(true)
+				.owner(owner).build());
+	}
+
+	@Test
+	void migrationPartitionsBookingsByMonthWithItemScopedGuard() {
+		assertEquals("p", jdbcTemplate.queryForObject(
+				"SELECT relkind::text FROM pg_class WHERE oid = 'bookings'::regclass", String.class));
+		LocalDate month = LocalDate.now().withDayOfMonth(1);
+		for (int i = 0; i <= 3; i++) {
+			assertTrue(partitions().contains(partitionOf(month.plusMonths(i))), partitions().toString());
+		}
+		assertTrue(partitions().contains("bookings_default"));
+		// Единственное исключающее ограничение — на несекционированной таблице периодов
+		assertEquals(List.of("booking_item_periods"), jdbcTemplate.queryForList(
+				"SELECT conrelid::regclass::text FROM pg_constraint WHERE contype = 'x'", String.class));
+	}
+
+	@Test
+	void bookingCreatedThroughServiceLandsInItsMonth() {
+		LocalDateTime start = LocalDate.now().withDayOfMonth(1).plusMonths(1).atTime(10, 0);
+		BookingRequestDto request = new BookingRequestDto();
+		request.setItemId(item.getId());
+		request.setStart(start);
+		request.setEnd(start.plusDays(2));
+
+		Long id = bookingService.createBooking(request, booker.getId()).getId();
+
+		assertEquals(partitionOf(start.toLocalDate()), partitionOfBooking(id));
+		assertEquals(id, bookingService.getBookingById(id, owner.getId()).getId());
+		assertEquals(1, periodsOf(id));
+	}
+
+	@Test
+	void overlapAcrossMonthBoundaryIsRejected() {
+		LocalDateTime boundary = LocalDate.now().withDayOfMonth(1).plusMonths(2).atStartOfDay();
+		long spanning = insert(boundary.minusDays(2), boundary.plusDays(2), "WAITING", "FUTURE");
+		assertEquals(partitionOf(boundary.minusMonths(1).toLocalDate()), partitionOfBooking(spanning));
+
+		assertThrows(DataIntegrityViolationException.class,
+				() -> insert(boundary.plusDays(1), boundary.plusDays(3), "APPROVED", "FUTURE"));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> insert(boundary.minusDays(1), boundary.minusHours(1), "WAITING", "FUTURE"));
+		// Смежные и отклонённые не мешают
+		long adjacent = insert(boundary.plusDays(2), boundary.plusDays(4), "APPROVED", "FUTURE");
+		assertEquals(partitionOf(boundary.toLocalDate()), partitionOfBooking(adjacent));
+		assertDoesNotThrow(() -> insert(boundary.plusDays(1), boundary.plusDays(3), "REJECTED", "FUTURE"));
+
+		// Отклонение освобождает период, возврат в WAITING снова упирается в пересечение
+		jdbcTemplate.update("UPDATE bookings SET status = 'REJECTED' WHERE id = ?", spanning);
+		assertEquals(0, periodsOf(spanning));
+		long replacement = insert(boundary.plusDays(1), boundary.plusDays(2), "WAITING", "FUTURE");
+		assertThrows(DataIntegrityViolationException.class,
+				() -> jdbcTemplate.update("UPDATE bookings SET status = 'WAITING' WHERE id = ?", spanning));
+		// Перенос в другой месяц — это DELETE и INSERT в секциях, период следует за строкой
+		jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ? WHERE id = ?",
+				Timestamp.valueOf(boundary.minusDays(3)), Timestamp.valueOf(boundary.minusDays(2)), replacement);
+		assertEquals(partitionOf(boundary.minusMonths(1).toLocalDate()), partitionOfBooking(replacement));
+		assertEquals(1, periodsOf(replacement));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> insert(boundary.minusDays(3), boundary.minusDays(2), "WAITING", "FUTURE"));
+	}
+
+	// Строки из DEFAULT переезжают в новую секцию вместе со своими периодами
+	@Test
+	void ensurePartitionMovesRowsOutOfDefaultKeepingGuard() {
+		LocalDateTime start = LocalDate.of(ThreadLocalRandom.current().nextInt(2200, 2900),
+				ThreadLocalRandom.current().nextInt(1, 13), 10).atTime(12, 0);
+		long id = insert(start, start.plusDays(1), "APPROVED", "FUTURE");
+		assertEquals("bookings_default", partitionOfBooking(id));
+
+		String created = jdbcTemplate.queryForObject("SELECT bookings_ensure_partition(?)", String.class,
+				start.toLocalDate());
+
+		assertEquals(partitionOf(start.toLocalDate()), created);
+		assertEquals(created, partitionOfBooking(id));
+		assertEquals(1, periodsOf(id));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> insert(start.plusHours(1), start.plusHours(2), "WAITING", "FUTURE"));
+		assertNull(jdbcTemplate.queryForObject("SELECT bookings_ensure_partition(?)", String.class,
+				start.toLocalDate()));
+	}
+
+	@Test
+	void archiveDetachesFinishedMonthAndDropsItsPeriods() {
+		LocalDate month = LocalDate.of(ThreadLocalRandom.current().nextInt(1000, 1900),
+				ThreadLocalRandom.current().nextInt(1, 13), 1);
+		long id = insert(month.atTime(9, 0), month.atTime(9, 0).plusDays(1), "APPROVED", "PAST");
+		jdbcTemplate.queryForObject("SELECT bookings_ensure_partition(?)", String.class, month);
+
+		List<String> archived = jdbcTemplate.queryForList("SELECT bookings_archive_partitions(?)", String.class,
+				month.plusMonths(1));
+
+		assertTrue(archived.contains(partitionOf(month)), archived.toString());
+		assertFalse(partitions().contains(partitionOf(month)));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE id = ?", Integer.class, id));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive." + partitionOf(month)
+				+ " WHERE id = ?", Integer.class, id));
+		assertEquals(0, periodsOf(id));
+	}
+
+	@Test
+	void queriesBoundedByStartDateArePruned() {
+		LocalDate nextMonth = LocalDate.now().withDayOfMonth(1).plusMonths(1);
+		Set<String> window = scannedPartitions("SELECT b.id FROM bookings b WHERE b.item_id = ? "
+						+ "AND b.status IN ('APPROVED', 'WAITING') AND b.start_date >= ? AND b.start_date < ?",
+				item.getId(), Timestamp.valueOf(nextMonth.atStartOfDay()),
+				Timestamp.valueOf(nextMonth.plusMonths(1).atStartOfDay()));
+		assertEquals(Set.of(partitionOf(nextMonth)), window);
+
+		// Keyset-страница владельца от начала текущего месяца не заходит в секции будущих месяцев;
+		// DEFAULT остаётся в плане, потому что в ней же лежат месяцы раньше первой секции
+		Timestamp cursor = Timestamp.valueOf(nextMonth.minusMonths(1).atStartOfDay());
+		Set<String> keyset = scannedPartitions("SELECT b.id FROM bookings b WHERE b.owner_id = ? "
+						+ "AND (b.start_date < ? OR b.start_date = ? AND b.id < ?) "
+						+ "ORDER BY b.start_date DESC, b.id DESC LIMIT 20",
+				owner.getId(), cursor, cursor, Long.MAX_VALUE);
+		for (int i = 0; i <= 3; i++) {
+			assertFalse(keyset.contains(partitionOf(nextMonth.plusMonths(i))), keyset.toString());
+		}
+	}
+
+	private long insert(LocalDateTime start, LocalDateTime end, String status, String phase) {
+		return jdbcTemplate.queryForObject("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, "
+						+ "phase, owner_id) VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id", Long.class,
+				Timestamp.valueOf(start), Timestamp.valueOf(end), item.getId(), booker.getId(), status, phase,
+				owner.getId());
+	}
+
+	private Set<String> partitions() {
+		return new TreeSet<>(jdbcTemplate.queryForList("SELECT inhrelid::regclass::text FROM pg_inherits "
+				+ "WHERE inhparent = 'bookings'::regclass", String.class));
+	}
+
+	private String partitionOfBooking(long id) {
+		return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM bookings WHERE id = ?", String.class,
+				id);
+	}
+
+	private int periodsOf(long id) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_item_periods WHERE booking_id = ?",
+				Integer.class, id);
+	}
+
+	private Set<String> scannedPartitions(String sql, Object... parameters) {
+		Set<String> scanned = new TreeSet<>();
+		for (String line : jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters)) {
+			Matcher partition = PARTITION.matcher(line);
+			while (partition.find()) {
+				scanned.add(partition.group(1));
+			}
+		}
+		return scanned;
+	}
+
+	private static String partitionOf(LocalDate month) {
+		return "bookings_p" + month.format(PARTITION_SUFFIX);
+	}
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Первый проход планировщика отложен, чтобы переходы выполнял только сам тест
+@SpringBootTest(properties = "shareit.booking.phase-scheduler.initial-delay=PT1H")
+@RecordApplicationEvents
+class BookingPhaseSchedulerTest {
+	@Autowired
+	private BookingPhaseScheduler scheduler;
+	@Autowired
+	private ApplicationEvents events;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User booker;
+	private Item item;
+	private final LocalDateTime now = LocalDateTime.now();
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(User.builder().name("owner")
+				.email("owner-" + UUID.randomUUID() + "@example.com").build());
+		booker = userRepository.save(User.builder().name("booker")
+				.email("booker-" + UUID.randomUUID() + "@example.com").build());
+		item = itemRepository.save(Item.builder().name("tent").description("phases").available(true).owner(owner)
+				.build());
+	}
+
+	@Test
+	void newBookingsGetPhaseFromTheirDates() {
+		Booking booking = bookingRepository.save(Booking.builder().item(item).booker(booker)
+				.status(BookingStatus.WAITING).startTime(now.plusDays(1)).endTime(now.plusDays(2)).build());
+
+		assertEquals(BookingPhase.FUTURE, booking.getPhase());
+		assertEquals(BookingPhase.CURRENT, BookingPhase.at(now.minusHours(1), now.plusHours(1), now));
+		assertEquals(BookingPhase.PAST, BookingPhase.at(now.minusDays(2), now.minusDays(1), now));
+	}
+
+	@Test
+	void boundariesMoveBookingsToNextPhaseAndPublishEvents() {
+		Booking started = save(now.minusHours(1), now.plusHours(1), BookingPhase.FUTURE);
+		Booking ended = save(now.minusDays(2), now.minusDays(1), BookingPhase.CURRENT);
+		Booking skippedCurrent = save(now.minusHours(3), now.minusHours(2), BookingPhase.FUTURE);
+		Booking future = save(now.plusDays(1), now.plusDays(2), BookingPhase.FUTURE);
+
+		scheduler.advancePhases();
+
+		assertEquals(BookingPhase.CURRENT, phaseOf(started));
+		assertEquals(BookingPhase.PAST, phaseOf(ended));
+		assertEquals(BookingPhase.PAST, phaseOf(skippedCurrent));
+		assertEquals(BookingPhase.FUTURE, phaseOf(future));
+
+		List<Long> becamePast = transitionedTo(BookingPhase.PAST);
+		assertTrue(becamePast.containsAll(List.of(ended.getId(), skippedCurrent.getId())), becamePast.toString());
+		assertTrue(transitionedTo(BookingPhase.CURRENT).contains(started.getId()));
+
+		assertEquals(List.of(started.getId()), bookingService.getUserBookings(booker.getId(), BookingState.CURRENT,
+				PageRequest.of(0, 10)).stream().map(BookingResponseDto::getId).toList());
+		assertEquals(List.of(skippedCurrent.getId(), ended.getId()), bookingService.getUserBookings(booker.getId(),
+				BookingState.PAST, null, 10).stream().map(BookingResponseDto::getId).toList());
+	}
+
+	// Списки не зависят от того, успел ли планировщик: фаза в строке здесь отстаёт от дат
+	@Test
+	void listingsFollowDatesWhenStoredPhaseLags() {
+		Booking started = save(now.minusHours(1), now.plusHours(1), BookingPhase.FUTURE);
+		Booking ended = save(now.minusDays(2), now.minusDays(1), BookingPhase.CURRENT);
+		Booking future = save(now.plusDays(1), now.plusDays(2), BookingPhase.FUTURE);
+
+		assertEquals(List.of(started.getId()), userBookings(BookingState.CURRENT));
+		assertEquals(List.of(ended.getId()), userBookings(BookingState.PAST));
+		assertEquals(List.of(future.getId()), userBookings(BookingState.FUTURE));
+		assertEquals(List.of(started.getId()), bookingService.getUserBookings(booker.getId(), BookingState.CURRENT,
+				null, 10).stream().map(BookingResponseDto::getId).toList());
+		assertEquals(List.of(future.getId()), bookingService.getOwnerBookings(item.getOwner().getId(),
+				BookingState.FUTURE, null, 10).stream().map(BookingResponseDto::getId).toList());
+	}
+
+	private List<Long> userBookings(BookingState state) {
+		return bookingService.getUserBookings(booker.getId(), state, PageRequest.of(0, 10)).stream()
+				.map(BookingResponseDto::getId)
+				.toList();
+	}
+
+	// Даты в прошлом не пройдут проверку @Future сущности, поэтому бронирование сдвигается в обход JPA
+	private Booking save(LocalDateTime start, LocalDateTime end, BookingPhase phase) {
+		Booking booking = bookingRepository.save(Booking.builder().item(item).booker(booker)
+				.status(BookingStatus.APPROVED).startTime(now.plusYears(1)).endTime(now.plusYears(1).plusDays(1))
+				.build());
+		jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ?, phase = ? WHERE id = ?",
+				Timestamp.valueOf(start), Timestamp.valueOf(end), phase.name(), booking.getId());
+		return booking;
+	}
+
+	private BookingPhase phaseOf(Booking booking) {
+		return bookingRepository.findById(booking.getId()).orElseThrow().getPhase();
+	}
+
+	private List<Long> transitionedTo(BookingPhase phase) {
+		return events.stream(BookingPhaseTransitionEvent.class)
+				.filter(event -> event.getPhase() == phase)
+				.flatMap(event -> event.getBookingIds().stream())
+				.toList();
+	}
+}
@@ -0,0 +1,324 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Заполняет отдельную базу H2 данными, вызывает методы BookingRepository и через EXPLAIN проверяет, какими индексами
+ * обслуживается каждое обращение к bookings. План строится по тому SQL, который сгенерировал Hibernate: текст
+ * перехватывает тестовый CapturingSqlStatementCounter, параметры подставляются по их типам.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:query_plans;DB_CLOSE_DELAY=-1",
+		"shareit.booking.phase-scheduler.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingQueryPlanTest {
+	private static final int USERS = 200;
+	private static final int ITEMS = 1_000;
+	private static final int BOOKINGS = 50_000;
+	private static final String NOW = "TIMESTAMP '2025-06-01 00:00:00'";
+	private static final LocalDateTime PHASE_NOW = LocalDateTime.of(2025, 6, 1, 0, 0);
+	// Обращение к bookings в плане H2: таблица, псевдоним и индекс (или tableScan) в комментарии за ними;
+	// в подзапросах имена идут без кавычек и псевдонима
+	private static final Pattern BOOKINGS_ACCESS =
+			Pattern.compile("\"?PUBLIC\"?\\.\"?BOOKINGS\"?(?: \"?\\w+\"?)?\\s*/\\* PUBLIC\\.([\\w.]+)");
+	// Индексы первичного и внешних ключей H2 именует сам, с числовым суффиксом
+	private static final Pattern GENERATED_INDEX = Pattern.compile("^(PRIMARY_KEY|FK_[A-Z_]+_INDEX)_[0-9A-F]+$");
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private CapturingSqlStatementCounter sqlStatementCounter;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeAll
+	void seed() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			try (PreparedStatement users = connection.prepareStatement(
+					"INSERT INTO users (name, email) VALUES (?, ?)")) {
+				for (int i = 1; i <= USERS; i++) {
+					users.setString(1, "user" + i);
+					users.setString(2, "user" + i + "@plans.example");
+					users.addBatch();
+				}
+				users.executeBatch();
+			}
+			try (PreparedStatement items = connection.prepareStatement(
+					"INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, TRUE, ?)")) {
+				for (int i = 1; i <= ITEMS; i++) {
+					items.setLong(1, i);
+					items.setString(2, "item" + i);
+					items.setString(3, "description" + i);
+					items.setLong(4, i % USERS + 1);
+					items.addBatch();
+				}
+				items.executeBatch();
+			}
+			BookingStatus[] statuses = BookingStatus.values();
+			LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+			try (PreparedStatement bookings = connection.prepareStatement(
+					"INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, phase, owner_id) " +
+							"VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+				for (int i = 0; i < BOOKINGS; i++) {
+					LocalDateTime start = base.plusHours(i);
+					bookings.setTimestamp(1, Timestamp.valueOf(start));
+					bookings.setTimestamp(2, Timestamp.valueOf(start.plusHours(2)));
+					long itemId = i % ITEMS + 1;
+					bookings.setLong(3, itemId);
+					bookings.setLong(4, i % USERS + 1);
+					bookings.setString(5, statuses[i % statuses.length].name());
+					bookings.setString(6, BookingPhase.at(start, start.plusHours(2), PHASE_NOW).name());
+					bookings.setLong(7, itemId % USERS + 1);
+					bookings.addBatch();
+					if (i % 5_000 == 0) {
+						bookings.executeBatch();
+					}
+				}
+				bookings.executeBatch();
+			}
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("ANALYZE");
+			}
+		}
+	}
+
+	// Страница списков — как её строит BookingController: порядок (start DESC, id DESC)
+	Stream<Arguments> repositoryQueries() {
+		Pageable page = PageRequest.of(0, 10, BookingRepository.KEYSET_SORT);
+		Pageable batch = PageRequest.of(0, 1000);
+		Pageable first = PageRequest.of(0, 1);
+		LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+		LocalDateTime to = LocalDateTime.of(2025, 1, 3, 0, 0);
+		BookingCursor cursor = new BookingCursor(PHASE_NOW, 100L);
+		return Stream.of(
+				query("existsOverlappingBookings", () -> bookingRepository.existsOverlappingBookings(7L, from, to),
+						"IDX_BOOKINGS_ITEM_STATUS_END"),
+				query("existsOverlappingBookingsExcluding", () -> bookingRepository
+						.existsOverlappingBookingsExcluding(7L, from, to, 15L), "IDX_BOOKINGS_ITEM_STATUS_END"),
+				// H2 не использует IN по первому столбцу вместе с условиями по следующим: набор предметов читается
+				// через одностолбцовый индекс внешнего ключа
+				query("findActiveIntervals", () -> bookingRepository.findActiveIntervals(List.of(7L, 8L, 9L), from, to),
+						"FK_BOOKING_ON_ITEM_INDEX"),
+				query("findLastBookingForItem", () -> bookingRepository.findLastBookingForItem(7L, PHASE_NOW, first),
+						"IDX_BOOKINGS_ITEM_STATUS_END"),
+				query("findNextBookingForItem", () -> bookingRepository.findNextBookingForItem(7L, PHASE_NOW, first),
+						"IDX_BOOKINGS_ITEM_STATUS_START"),
+				query("findLastAndNextBookingsForItems", () -> bookingRepository
+								.findLastAndNextBookingsForItems(List.of(7L, 8L, 9L), PHASE_NOW),
+						"IDX_BOOKINGS_ITEM_STATUS_END", "IDX_BOOKINGS_ITEM_STATUS_START", "PRIMARY_KEY"),
+				query("existsByItemIdAndBookerIdAndEndTimeBefore", () -> bookingRepository
+						.existsByItemIdAndBookerIdAndEndTimeBefore(7L, 8L, PHASE_NOW), "IDX_BOOKINGS_ITEM_STATUS_END"),
+				// Без фильтра по состоянию H2 выбирает одностолбцовый индекс внешнего ключа (booker_id): порядок
+				// составного индекса после равенства он не учитывает, а свой индекс ключа создаёт при любом составном
+				query("findByBookerIdOrderByStartTimeDesc", () -> bookingRepository
+						.findByBookerIdOrderByStartTimeDesc(8L, page), "FK_BOOKING_ON_BOOKER_INDEX"),
+				query("findByBookerIdAndStatusOrderByStartTimeDesc", () -> bookingRepository
+								.findByBookerIdAndStatusOrderByStartTimeDesc(8L, BookingStatus.WAITING, page),
+						"IDX_BOOKINGS_BOOKER_STATUS_START"),
+				query("findByBookerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc", () ->
+								bookingRepository.findByBookerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+										8L, BookingPhase.UP_TO_CURRENT, PHASE_NOW, PHASE_NOW, page),
+						"IDX_BOOKINGS_BOOKER_PHASE_START"),
+				query("findByBookerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc", () -> bookingRepository
+								.findByBookerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(8L, BookingPhase.FUTURE,
+										PHASE_NOW, page),
+						"IDX_BOOKINGS_BOOKER_PHASE_START"),
+				query("findByBookerIdAndEndTimeBeforeOrderByStartTimeDesc", () -> bookingRepository
+						.findByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(8L, PHASE_NOW, page), "IDX_BOOKINGS_BOOKER_END"),
+				query("findKeysetPage (booker)", () -> bookingRepository.findKeysetPage(
+						BookingSpecifications.bookerIdEquals(8L).and(BookingSpecifications.after(cursor)), 10),
+						"FK_BOOKING_ON_BOOKER_INDEX"),
+				query("findKeysetPage (booker, PAST)", () -> bookingRepository.findKeysetPage(
+						BookingSpecifications.bookerIdEquals(8L).and(BookingSpecifications.inState(BookingState.PAST,
+								PHASE_NOW)).and(BookingSpecifications.after(cursor)), 10), "IDX_BOOKINGS_BOOKER_END"),
+				query("findByOwnerIdOrderByStartTimeDesc", () -> bookingRepository
+						.findByOwnerIdOrderByStartTimeDesc(8L, page), "IDX_BOOKINGS_OWNER_START"),
+				query("findByOwnerIdAndStatusOrderByStartTimeDesc", () -> bookingRepository
+								.findByOwnerIdAndStatusOrderByStartTimeDesc(8L, BookingStatus.WAITING, page),
+						"IDX_BOOKINGS_OWNER_STATUS_START"),
+				query("findByOwnerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc", () ->
+								bookingRepository.findByOwnerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+										8L, BookingPhase.UP_TO_CURRENT, PHASE_NOW, PHASE_NOW, page),
+						"IDX_BOOKINGS_OWNER_PHASE_START"),
+				query("findByOwnerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc", () -> bookingRepository
+								.findByOwnerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(8L, BookingPhase.FUTURE,
+										PHASE_NOW, page),
+						"IDX_BOOKINGS_OWNER_PHASE_START"),
+				query("findByOwnerIdAndEndTimeBeforeOrderByStartTimeDesc", () -> bookingRepository
+						.findByOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(8L, PHASE_NOW, page), "IDX_BOOKINGS_OWNER_START"),
+				query("findKeysetPage (owner, WAITING)", () -> bookingRepository.findKeysetPage(
+						BookingSpecifications.ownerIdEquals(8L).and(BookingSpecifications.inState(BookingState.WAITING,
+								PHASE_NOW)).and(BookingSpecifications.after(cursor)), 10), "IDX_BOOKINGS_OWNER_STATUS_START"),
+				query("findKeysetPage (owner, ALL)", () -> bookingRepository.findKeysetPage(
+						BookingSpecifications.ownerIdEquals(8L).and(BookingSpecifications.after(cursor)), 10),
+						"IDX_BOOKINGS_OWNER_START"),
+				query("countByOwnerId", () -> bookingRepository.countByOwnerId(8L), "IDX_BOOKINGS_OWNER_START"),
+				query("findIdsEndedBefore", () -> bookingRepository.findIdsEndedBefore(PHASE_NOW, batch),
+						"IDX_BOOKINGS_PHASE_END"),
+				query("findIdsStartedBefore", () -> bookingRepository.findIdsStartedBefore(PHASE_NOW, batch),
+						"IDX_BOOKINGS_PHASE_START")
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("repositoryQueries")
+	void queryUsesIndex(String method, Runnable invocation, List<String> expectedIndexes) throws SQLException {
+		String sql = capture(invocation);
+		String plan = explain(sql);
+
+		assertEquals(expectedIndexes, bookingsIndexes(plan), method + ":\n" + plan);
+	}
+
+	@Test
+	void bookingOwnerFollowsItemOwnership() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement()) {
+			statement.executeUpdate("UPDATE items SET owner_id = 150 WHERE id = 999");
+
+			try (ResultSet owners = statement.executeQuery("SELECT DISTINCT owner_id FROM bookings WHERE item_id = 999")) {
+				assertTrue(owners.next());
+				assertEquals(150, owners.getLong(1));
+				assertFalse(owners.next());
+			}
+			assertThrows(SQLException.class, () -> statement.executeUpdate("INSERT INTO bookings " +
+					"(start_date, end_date, item_id, booker_id, status, phase, owner_id) VALUES (" + NOW + ", " + NOW +
+					", 999, 1, 'WAITING', 'FUTURE', 151)"));
+		}
+	}
+
+	private static Arguments query(String method, Runnable invocation, String... expectedIndexes) {
+		return Arguments.of(method, invocation, List.of(expectedIndexes));
+	}
+
+	// Счётчик приложения хранит только число запросов; здесь он же запоминает их текст и подменяет основной бин
+	@TestConfiguration
+	static class CaptureConfig {
+		@Bean
+		@Primary
+		CapturingSqlStatementCounter capturingSqlStatementCounter() {
+			return new CapturingSqlStatementCounter();
+		}
+	}
+
+	static class CapturingSqlStatementCounter extends SqlStatementCounter {
+		private final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+		@Override
+		public String inspect(String sql) {
+			List<String> current = statements.get();
+			if (current != null) {
+				current.add(sql);
+			}
+			return super.inspect(sql);
+		}
+
+		@Override
+		public void start() {
+			super.start();
+			statements.set(new ArrayList<>());
+		}
+
+		List<String> statements() {
+			List<String> current = statements.get();
+			return current != null ? List.copyOf(current) : List.of();
+		}
+
+		@Override
+		public int stop() {
+			statements.remove();
+			return super.stop();
+		}
+	}
+
+	// Метод репозитория должен обойтись одним запросом: его текст и проверяется
+	private String capture(Runnable invocation) {
+		sqlStatementCounter.start();
+		try {
+			transactionTemplate.executeWithoutResult(status -> invocation.run());
+			List<String> statements = sqlStatementCounter.statements();
+			assertEquals(1, statements.size(), String.join("\n", statements));
+			return statements.get(0);
+		} finally {
+			sqlStatementCounter.stop();
+		}
+	}
+
+	// План H2 не зависит от значений параметров, поэтому подставляются любые значения нужного типа
+	private String explain(String sql) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			ParameterMetaData parameters = statement.getParameterMetaData();
+			for (int i = 1; i <= parameters.getParameterCount(); i++) {
+				statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				StringBuilder plan = new StringBuilder();
+				while (resultSet.next()) {
+					plan.append(resultSet.getString(1));
+				}
+				return plan.toString();
+			}
+		}
+	}
+
+	private static Object sampleValue(int sqlType) {
+		switch (sqlType) {
+			case Types.TIMESTAMP:
+				return Timestamp.valueOf(PHASE_NOW);
+			case Types.VARCHAR:
+			case Types.CHAR:
+				return BookingStatus.WAITING.name();
+			case Types.BOOLEAN:
+				return Boolean.TRUE;
+			default:
+				return 8L;
+		}
+	}
+
+	private static List<String> bookingsIndexes(String plan) {
+		List<String> indexes = new ArrayList<>();
+		Matcher matcher = BOOKINGS_ACCESS.matcher(plan);
+		while (matcher.find()) {
+			indexes.add(GENERATED_INDEX.matcher(matcher.group(1)).replaceAll("$1"));
+		}
+		return indexes;
+	}
+}
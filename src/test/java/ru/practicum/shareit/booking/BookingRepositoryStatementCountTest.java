@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@Transactional
+class BookingRepositoryStatementCountTest {
+	private static final int BOOKINGS = 6;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private BookingMapper bookingMapper;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User owner;
+	private User booker;
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		owner = persist(User.builder().name("owner").email("owner-stmt@example.com").build());
+		booker = persist(User.builder().name("booker").email("booker-stmt@example.com").build());
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < BOOKINGS; i++) {
+			Item item = persist(Item.builder().name("item" + i).description("description").available(true)
+					.owner(owner).build());
+			Booking booking = persist(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+					.startTime(now.plusDays(1)).endTime(now.plusDays(2)).build());
+			// По бронированию в каждом состоянии: прошедшие даты @Future не пропустит, поэтому сдвиг в обход JPA
+			LocalDateTime start = now.plusDays(i * 2L - BOOKINGS);
+			entityManager.flush();
+			entityManager.createNativeQuery("UPDATE bookings SET start_date = ?, end_date = ?, phase = ? WHERE id = ?")
+					.setParameter(1, start)
+					.setParameter(2, start.plusDays(3))
+					.setParameter(3, BookingPhase.at(start, start.plusDays(3), now).name())
+					.setParameter(4, booking.getId())
+					.executeUpdate();
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void everyListingPageIsLoadedWithSingleStatement() {
+		Pageable page = PageRequest.of(0, BOOKINGS);
+		Long bookerId = booker.getId();
+		Long ownerId = owner.getId();
+		LocalDateTime now = LocalDateTime.now();
+
+		Map<String, Supplier<List<Booking>>> queries = new LinkedHashMap<>();
+		queries.put("booker ALL", () -> bookingRepository.findByBookerIdOrderByStartTimeDesc(bookerId, page));
+		queries.put("booker WAITING", () -> bookingRepository
+				.findByBookerIdAndStatusOrderByStartTimeDesc(bookerId, BookingStatus.WAITING, page));
+		queries.put("booker CURRENT", () -> bookingRepository
+				.findByBookerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(bookerId,
+						BookingPhase.UP_TO_CURRENT, now, now, page));
+		queries.put("booker PAST", () -> bookingRepository
+				.findByBookerIdAndEndTimeBeforeOrderByStartTimeDesc(bookerId, now, page));
+		queries.put("booker FUTURE", () -> bookingRepository
+				.findByBookerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(bookerId, BookingPhase.FUTURE, now, page));
+		queries.put("owner ALL", () -> bookingRepository.findByOwnerIdOrderByStartTimeDesc(ownerId, page));
+		queries.put("owner WAITING", () -> bookingRepository
+				.findByOwnerIdAndStatusOrderByStartTimeDesc(ownerId, BookingStatus.WAITING, page));
+		queries.put("owner CURRENT", () -> bookingRepository
+				.findByOwnerIdAndPhaseInAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(ownerId,
+						BookingPhase.UP_TO_CURRENT, now, now, page));
+		queries.put("owner PAST", () -> bookingRepository
+				.findByOwnerIdAndEndTimeBeforeOrderByStartTimeDesc(ownerId, now, page));
+		queries.put("owner FUTURE", () -> bookingRepository
+				.findByOwnerIdAndPhaseAndStartTimeAfterOrderByStartTimeDesc(ownerId, BookingPhase.FUTURE, now, page));
+
+		queries.forEach((name, query) -> {
+			entityManager.clear();
+			statistics.clear();
+
+			List<BookingResponseDto> dtos = query.get().stream()
+					.map(bookingMapper::toDto)
+					.toList();
+			dtos.forEach(dto -> dto.getItem().getName());
+
+			assertFalse(dtos.isEmpty(), name);
+			assertEquals(1, statistics.getPrepareStatementCount(), name);
+		});
+	}
+
+	@Test
+	void findByIdLoadsBookerItemAndOwnerWithSingleStatement() {
+		Long bookingId = bookingRepository.findByBookerIdOrderByStartTimeDesc(booker.getId(), PageRequest.of(0, 1))
+				.get(0).getId();
+		entityManager.clear();
+		statistics.clear();
+
+		Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+		bookingMapper.toDto(booking);
+		booking.getItem().getOwner().getName();
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private <T> T persist(T entity) {
+		entityManager.persist(entity);
+		return entity;
+	}
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingStreamingTest {
+	private static final int BOOKINGS = 7;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private BookingService bookingService;
+
+	private User owner;
+	private User booker;
+	private final List<Booking> bookings = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString();
+		owner = userRepository.save(User.builder().name("owner").email("owner-" + suffix + "@example.com").build());
+		booker = userRepository.save(User.builder().name("booker").email("booker-" + suffix + "@example.com").build());
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		for (int i = 0; i < BOOKINGS; i++) {
+			Item item = itemRepository.save(Item.builder().name("item, \"" + i + "\"").description("stream").available(true)
+					.owner(owner).build());
+			bookings.add(bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+					.startTime(start.plusDays(i * 2L)).endTime(start.plusDays(i * 2L + 1)).build()));
+		}
+	}
+
+	@Test
+	void ownerBookingsAreStreamedAsNdjsonInListingOrder() throws Exception {
+		ResponseEntity<String> response = get("/bookings/owner/stream?state=FUTURE", owner.getId());
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+		List<BookingResponseDto> streamed = parse(response.getBody());
+		assertEquals(BOOKINGS, streamed.size());
+		for (int i = 1; i < streamed.size(); i++) {
+			assertTrue(streamed.get(i - 1).getStart().isAfter(streamed.get(i).getStart()));
+		}
+		assertEquals(booker.getId(), streamed.get(0).getBooker().getId());
+	}
+
+	@Test
+	void streamResumesAfterCursor() throws Exception {
+		List<BookingResponseDto> all = parse(get("/bookings/stream", booker.getId()).getBody());
+		BookingResponseDto last = all.get(2);
+
+		List<BookingResponseDto> rest = parse(get("/bookings/stream?afterStart=" + last.getStart() + "&afterId="
+				+ last.getId(), booker.getId()).getBody());
+
+		assertEquals(all.subList(3, all.size()), rest);
+	}
+
+	@Test
+	void ownerExportContainsWholeHistoryAsCsv() {
+		Booking rejected = bookings.get(0);
+		rejected.setStatus(BookingStatus.REJECTED);
+		bookingRepository.save(rejected);
+
+		ResponseEntity<String> response = get("/bookings/owner/export?format=csv", owner.getId());
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv")));
+		String[] lines = response.getBody().split("\n");
+		assertEquals(BOOKINGS + 1, lines.length);
+		assertEquals("id,start,end,status,item_id,item_name,booker_id,booker_name", lines[0]);
+		assertTrue(lines[1].contains(",\"item, \"\"" + (BOOKINGS - 1) + "\"\"\","), lines[1]);
+		assertTrue(response.getBody().contains(",REJECTED,"));
+	}
+
+	@Test
+	void ownerExportDefaultsToNdjson() throws Exception {
+		ResponseEntity<String> response = get("/bookings/owner/export", owner.getId());
+
+		assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+		assertEquals(parse(get("/bookings/owner/stream", owner.getId()).getBody()), parse(response.getBody()));
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings/owner/export?format=xml", owner.getId())
+				.getStatusCode());
+	}
+
+	// Порции читаются в коротких транзакциях: пока потребитель пишет строку, поток не держит ни транзакции,
+	// ни EntityManager, ни соединения. Одинаковые start на стыке порций не теряются и не повторяются
+	@Test
+	void longStreamIsReadInChunksWithoutHoldingConnection() {
+		User bigOwner = userRepository.save(User.builder().name("big owner")
+				.email("big-owner-" + UUID.randomUUID() + "@example.com").build());
+		Item item = itemRepository.save(Item.builder().name("item").description("chunks").available(true)
+				.owner(bigOwner).build());
+		LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+		List<Booking> history = new ArrayList<>();
+		for (int i = 0; i < BookingServiceImpl.STREAM_CHUNK_SIZE * 2 + 1; i++) {
+			history.add(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+					.startTime(start.plusHours(i / 3)).endTime(start.plusHours(i / 3).plusMinutes(20)).build());
+		}
+		bookingRepository.saveAll(history);
+
+		List<Long> streamed = new ArrayList<>();
+		bookingService.exportOwnerBookings(bigOwner.getId(), booking -> {
+			assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+			assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty(),
+					TransactionSynchronizationManager.getResourceMap().toString());
+			streamed.add(booking.getId());
+		});
+
+		assertEquals(history.stream()
+				.sorted(Comparator.comparing(Booking::getStartTime).thenComparing(Booking::getId).reversed())
+				.map(Booking::getId)
+				.toList(), streamed);
+	}
+
+	// Выгрузка не снимок: строка, добавленная впереди курсора, пропускается, позади — попадает в следующую порцию
+	@Test
+	void exportPicksUpOnlyRowsAheadOfItsPosition() {
+		User bigOwner = userRepository.save(User.builder().name("big owner")
+				.email("big-owner-" + UUID.randomUUID() + "@example.com").build());
+		Item item = itemRepository.save(Item.builder().name("item").description("live").available(true)
+				.owner(bigOwner).build());
+		LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+		List<Booking> history = new ArrayList<>();
+		for (int i = 0; i <= BookingServiceImpl.STREAM_CHUNK_SIZE; i++) {
+			history.add(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+					.startTime(start.plusHours(i)).endTime(start.plusHours(i).plusMinutes(20)).build());
+		}
+		bookingRepository.saveAll(history);
+
+		List<Long> streamed = new ArrayList<>();
+		List<Booking> added = new ArrayList<>();
+		bookingService.exportOwnerBookings(bigOwner.getId(), booking -> {
+			if (streamed.isEmpty()) {
+				added.add(bookingRepository.save(Booking.builder().item(item).booker(booker)
+						.status(BookingStatus.APPROVED).startTime(start.plusYears(1))
+						.endTime(start.plusYears(1).plusHours(1)).build()));
+				added.add(bookingRepository.save(Booking.builder().item(item).booker(booker)
+						.status(BookingStatus.APPROVED).startTime(start.minusDays(1))
+						.endTime(start.minusDays(1).plusHours(1)).build()));
+			}
+			streamed.add(booking.getId());
+		});
+
+		assertEquals(history.size() + 1, streamed.size());
+		assertFalse(streamed.contains(added.get(0).getId()));
+		assertEquals(added.get(1).getId(), streamed.get(streamed.size() - 1));
+		assertEquals(streamed.size(), new HashSet<>(streamed).size());
+	}
+
+	@Test
+	void validationErrorsAreReportedBeforeStreaming() {
+		assertEquals(HttpStatus.NOT_FOUND, get("/bookings/stream", Long.MAX_VALUE).getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, get("/bookings/owner/export?format=csv", Long.MAX_VALUE).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, get("/bookings/owner/stream?state=SOMETIMES", owner.getId())
+				.getStatusCode());
+	}
+
+	private ResponseEntity<String> get(String path, long userId) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(userId));
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+
+	private List<BookingResponseDto> parse(String body) throws Exception {
+		List<BookingResponseDto> bookings = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			bookings.add(objectMapper.readValue(line, BookingResponseDto.class));
+		}
+		return bookings;
+	}
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.metrics.SqlBudgetAdvice;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "shareit.booking.phase-scheduler.initial-delay=PT1H")
+class OwnerBookingSummaryTest {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private BookingPhaseScheduler bookingPhaseScheduler;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+	private long ownerId;
+	private long bookerId;
+	private long drillId;
+	private long sawId;
+
+	@BeforeEach
+	void setUp() {
+		ownerId = createUser("owner");
+		bookerId = createUser("booker");
+		drillId = createItem("drill");
+		sawId = createItem("saw");
+	}
+
+	@Test
+	void countersFollowCreateAndApproveWithoutQueries() {
+		BookingResponseDto first = book(drillId, 0);
+		BookingResponseDto second = book(drillId, 2);
+		book(sawId, 0);
+
+		BookingSummaryDto loaded = getSummary().getBody();
+		assertEquals(3, loaded.getStates().get(BookingState.ALL));
+		assertEquals(3, loaded.getStates().get(BookingState.WAITING));
+		assertEquals(List.of(drillId, sawId), loaded.getItems().stream().map(ItemBookingSummaryDto::getItemId).toList());
+		assertEquals(2, loaded.getItems().get(0).getStates().get(BookingState.FUTURE));
+
+		bookingService.approveBooking(first.getId(), true, ownerId);
+		bookingService.approveBookings(List.of(second.getId()), false, ownerId);
+		book(sawId, 2);
+		ResponseEntity<BookingSummaryDto> response = getSummary();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("0", response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+		Map<BookingState, Long> states = response.getBody().getStates();
+		for (BookingState state : BookingState.values()) {
+			assertEquals(bookingService.getOwnerBookings(ownerId, state, PageRequest.of(0, 100)).size(),
+					states.get(state), "состояние " + state);
+		}
+		assertEquals(2, states.get(BookingState.WAITING));
+		assertEquals(1, states.get(BookingState.REJECTED));
+	}
+
+	@Test
+	void phaseTransitionRecountsAffectedOwner() {
+		BookingResponseDto booking = book(drillId, 0);
+		assertEquals(1, getSummary().getBody().getStates().get(BookingState.FUTURE));
+
+		LocalDateTime now = LocalDateTime.now();
+		jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ? WHERE id = ?",
+				Timestamp.valueOf(now.minusHours(1)), Timestamp.valueOf(now.plusHours(1)), booking.getId());
+		bookingPhaseScheduler.advancePhases();
+
+		Map<BookingState, Long> states = getSummary().getBody().getStates();
+		assertEquals(0, states.get(BookingState.FUTURE));
+		assertEquals(1, states.get(BookingState.CURRENT));
+	}
+
+	private BookingResponseDto book(long itemId, int slot) {
+		return bookingService.createBooking(BookingRequestDto.builder().itemId(itemId)
+				.start(start.plusHours(slot)).end(start.plusHours(slot + 1)).build(), bookerId);
+	}
+
+	private ResponseEntity<BookingSummaryDto> getSummary() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(ownerId));
+		return restTemplate.exchange("/bookings/owner/summary", HttpMethod.GET, new HttpEntity<>(headers),
+				BookingSummaryDto.class);
+	}
+
+	private long createUser(String name) {
+		return userService.createUser(UserDto.builder().name(name)
+				.email(name + "-" + UUID.randomUUID() + "@example.com").build()).getId();
+	}
+
+	private long createItem(String name) {
+		return itemService.createItem(ItemCreateDto.builder().name(name).description("summary").available(true)
+				.build(), ownerId).getId();
+	}
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.metrics.SqlBudgetAdvice;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemAvailabilityTest {
+	private static final int WINDOW_HOURS = 10;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User owner;
+	private User booker;
+	private LocalDateTime from;
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString();
+		owner = userRepository.save(User.builder().name("owner").email("owner-" + suffix + "@example.com").build());
+		booker = userRepository.save(User.builder().name("booker").email("booker-" + suffix + "@example.com").build());
+		from = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+	}
+
+	@Test
+	void adjacentBookingsMergeIntoOneBusyWindow() {
+		Item item = item(true);
+		book(item, 1, 2, BookingStatus.APPROVED);
+		book(item, 2, 3, BookingStatus.WAITING);
+
+		ItemAvailabilityDto availability = fetch(item.getId());
+
+		assertEquals(List.of(window(1, 3)), availability.getBusy());
+		assertEquals(List.of(window(0, 1), window(3, WINDOW_HOURS)), availability.getFree());
+	}
+
+	@Test
+	void nestedAndOverlappingBookingsMerge() {
+		Item nested = item(true);
+		book(nested, 1, 5, BookingStatus.APPROVED);
+		book(nested, 2, 3, BookingStatus.APPROVED);
+		Item overlapping = item(true);
+		book(overlapping, 1, 3, BookingStatus.APPROVED);
+		book(overlapping, 2, 4, BookingStatus.WAITING);
+		book(overlapping, 6, 7, BookingStatus.REJECTED);
+
+		assertEquals(List.of(window(1, 5)), fetch(nested.getId()).getBusy());
+		ItemAvailabilityDto availability = fetch(overlapping.getId());
+		assertEquals(List.of(window(1, 4)), availability.getBusy());
+		assertEquals(List.of(window(0, 1), window(4, WINDOW_HOURS)), availability.getFree());
+	}
+
+	// Бронирования на границах окна обрезаются, касающиеся границы снаружи не попадают в ответ
+	@Test
+	void bookingsAreClippedToWindowEdges() {
+		Item item = item(true);
+		book(item, -3, 0, BookingStatus.APPROVED);
+		book(item, -2, 1, BookingStatus.APPROVED);
+		book(item, 9, 12, BookingStatus.WAITING);
+		book(item, WINDOW_HOURS, WINDOW_HOURS + 1, BookingStatus.APPROVED);
+
+		ItemAvailabilityDto availability = fetch(item.getId());
+
+		assertEquals(from, availability.getFrom());
+		assertEquals(at(WINDOW_HOURS), availability.getTo());
+		assertEquals(List.of(window(0, 1), window(9, WINDOW_HOURS)), availability.getBusy());
+		assertEquals(List.of(window(1, 9)), availability.getFree());
+	}
+
+	@Test
+	void unavailableItemHasNoFreeWindows() {
+		Item item = item(false);
+		book(item, 1, 2, BookingStatus.APPROVED);
+
+		ItemAvailabilityDto availability = fetch(item.getId());
+
+		assertEquals(List.of(window(1, 2)), availability.getBusy());
+		assertTrue(availability.getFree().isEmpty());
+	}
+
+	@Test
+	void batchKeepsRequestOrderInTwoQueries() {
+		Item first = item(true);
+		Item second = item(true);
+		Item third = item(true);
+		book(second, 1, 2, BookingStatus.APPROVED);
+
+		ResponseEntity<ItemAvailabilityDto[]> response = get("/items/availability?ids=" + third.getId() + ","
+				+ first.getId() + "," + second.getId() + "&" + period(), ItemAvailabilityDto[].class);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(third.getId(), first.getId(), second.getId()),
+				Arrays.stream(response.getBody()).map(ItemAvailabilityDto::getItemId).toList());
+		assertEquals(List.of(window(1, 2)), response.getBody()[2].getBusy());
+		assertEquals("2", response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+
+		ResponseEntity<ItemAvailabilityDto> single = get("/items/" + first.getId() + "/availability?" + period(),
+				ItemAvailabilityDto.class);
+		assertEquals("2", single.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+	}
+
+	@Test
+	void missingItemsAreReportedAsNotFound() {
+		Item item = item(true);
+		long missing = item.getId() + 1_000_000;
+
+		ResponseEntity<String> batch = get("/items/availability?ids=" + item.getId() + "," + missing + ","
+				+ (missing + 1), String.class);
+		ResponseEntity<String> single = get("/items/" + missing + "/availability", String.class);
+
+		assertEquals(HttpStatus.NOT_FOUND, batch.getStatusCode());
+		assertTrue(batch.getBody().contains("[" + missing + ", " + (missing + 1) + "]"), batch.getBody());
+		assertEquals(HttpStatus.NOT_FOUND, single.getStatusCode());
+		assertTrue(single.getBody().contains(String.valueOf(missing)), single.getBody());
+	}
+
+	private Item item(boolean available) {
+		return itemRepository.save(Item.builder().name("tent").description("availability").available(available)
+				.owner(owner).build());
+	}
+
+	private void book(Item item, int startHour, int endHour, BookingStatus status) {
+		bookingRepository.save(Booking.builder().item(item).booker(booker).status(status)
+				.startTime(at(startHour)).endTime(at(endHour)).build());
+	}
+
+	private ItemAvailabilityDto fetch(long itemId) {
+		ResponseEntity<ItemAvailabilityDto> response = get("/items/" + itemId + "/availability?" + period(),
+				ItemAvailabilityDto.class);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		return response.getBody();
+	}
+
+	private String period() {
+		return "from=" + from + "&to=" + at(WINDOW_HOURS);
+	}
+
+	private TimeWindowDto window(int startHour, int endHour) {
+		return new TimeWindowDto(at(startHour), at(endHour));
+	}
+
+	private LocalDateTime at(int hour) {
+		return from.plusHours(hour);
+	}
+
+	private <T> ResponseEntity<T> get(String path, Class<T> type) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(owner.getId()));
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), type);
+	}
+}
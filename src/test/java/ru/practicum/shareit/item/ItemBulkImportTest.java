@@ -0,0 +1,177 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.metrics.SqlBudgetAdvice;
+import ru.practicum.shareit.request.ItemRequestCreateDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemBulkImportTest {
+	private static final int ROWS = 120;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRequestService itemRequestService;
+
+	private long ownerId;
+
+	@BeforeEach
+	void setUp() {
+		ownerId = userService.createUser(UserDto.builder().name("shop")
+				.email("shop-" + UUID.randomUUID() + "@example.com").build()).getId();
+	}
+
+	@Test
+	void validRowsAreInsertedInBatchesAndInvalidRowsReported() {
+		List<ItemCreateDto> items = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			items.add(ItemCreateDto.builder().name("drill " + i).description("bulk import").available(true).build());
+		}
+		items.get(5).setName(" ");
+		items.get(77).setAvailable(null);
+
+		ResponseEntity<ItemBulkResultDto> response = post(items, MediaType.APPLICATION_JSON);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		ItemBulkResultDto result = response.getBody();
+		assertEquals(ROWS - 2, result.getCreated());
+		assertEquals(ROWS - 2, result.getIds().size());
+		assertEquals(List.of(5, 77), result.getErrors().stream().map(ItemBulkErrorDto::getRow).toList());
+		assertEquals("Статус доступности обязателен", result.getErrors().get(1).getError());
+		assertEquals(ROWS - 2, itemService.getAllItemsByOwnerId(ownerId).size());
+		// Без пакетов и блоков id было бы по два запроса на строку
+		int statements = Integer.parseInt(response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+		assertTrue(statements < 15, "SQL-запросов на импорт: " + statements);
+	}
+
+	@Test
+	void ndjsonRowsAreImportedAndIndexedForSearch() {
+		String marker = "ndjson" + UUID.randomUUID().toString().substring(0, 8);
+		String body = "{\"name\":\"" + marker + " saw\",\"description\":\"sharp\",\"available\":true}\n"
+				+ "\n"
+				+ "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n"
+				+ "{\"name\":\"" + marker + " axe\",\"description\":\"heavy\",\"available\":false}\n";
+
+		ItemBulkResultDto result = post(body, MediaType.APPLICATION_NDJSON).getBody();
+
+		assertEquals(2, result.getCreated());
+		assertEquals(1, result.getErrors().get(0).getRow());
+		assertEquals(1, itemService.searchAvailableItems(marker, 0, 10).size());
+	}
+
+	@Test
+	void malformedNdjsonIsRejected() {
+		ResponseEntity<String> response = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>("{\"name\":\"x\"\nnot json\n", headers(MediaType.APPLICATION_NDJSON)), String.class);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertTrue(response.getBody().contains("строке 1"), response.getBody());
+	}
+
+	// После строки сверх предела тело не дочитывается: некорректный JSON за ней уже не разбирается
+	@Test
+	void ndjsonOverLimitIsRejectedWithoutReadingTheRest() {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i <= ItemService.MAX_BULK_ITEMS; i++) {
+			body.append("{\"name\":\"n\",\"description\":\"d\",\"available\":true}\n");
+		}
+		body.append("not json\n");
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>(body.toString(), headers(MediaType.APPLICATION_NDJSON)), String.class);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertTrue(response.getBody().contains(String.valueOf(ItemService.MAX_BULK_ITEMS)), response.getBody());
+		assertTrue(itemService.getAllItemsByOwnerId(ownerId).isEmpty());
+	}
+
+	// JSON-массив тоже разбирается потоково и обрывается на элементе сверх предела
+	@Test
+	void jsonArrayOverLimitIsRejectedWithoutReadingTheRest() {
+		StringBuilder body = new StringBuilder("[");
+		for (int i = 0; i <= ItemService.MAX_BULK_ITEMS; i++) {
+			body.append("{\"name\":\"n\",\"description\":\"d\",\"available\":true},");
+		}
+		body.append("not json");
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>(body.toString(), headers(MediaType.APPLICATION_JSON)), String.class);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertTrue(response.getBody().contains(String.valueOf(ItemService.MAX_BULK_ITEMS)), response.getBody());
+		assertTrue(itemService.getAllItemsByOwnerId(ownerId).isEmpty());
+	}
+
+	@Test
+	void malformedJsonArrayIsRejected() {
+		ResponseEntity<String> notArray = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>("{\"name\":\"x\"}", headers(MediaType.APPLICATION_JSON)), String.class);
+		ResponseEntity<String> broken = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>("[{\"name\":\"x\",\"description\":\"d\",\"available\":true}, 42]",
+						headers(MediaType.APPLICATION_JSON)), String.class);
+
+		assertEquals(HttpStatus.BAD_REQUEST, notArray.getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, broken.getStatusCode());
+		assertTrue(broken.getBody().contains("элементе 1"), broken.getBody());
+		assertTrue(itemService.getAllItemsByOwnerId(ownerId).isEmpty());
+	}
+
+	@Test
+	void unknownRequestIdIsReportedWithRowBeforeAnyInsert() {
+		long requesterId = userService.createUser(UserDto.builder().name("requester")
+				.email("requester-" + UUID.randomUUID() + "@example.com").build()).getId();
+		long requestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+				.description("нужна пила").build(), requesterId).getId();
+		List<ItemCreateDto> items = List.of(
+				ItemCreateDto.builder().name("saw").description("answer").available(true).requestId(requestId).build(),
+				ItemCreateDto.builder().name("axe").description("plain").available(true).build(),
+				ItemCreateDto.builder().name("file").description("bad ref").available(true)
+						.requestId(requestId + 1_000_000).build());
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/items/bulk",
+				new HttpEntity<>(items, headers(MediaType.APPLICATION_JSON)), String.class);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertTrue(response.getBody().contains("строка 2"), response.getBody());
+		assertTrue(itemService.getAllItemsByOwnerId(ownerId).isEmpty());
+
+		ResponseEntity<ItemBulkResultDto> valid = post(items.subList(0, 2), MediaType.APPLICATION_JSON);
+		assertEquals(HttpStatus.OK, valid.getStatusCode());
+		assertEquals(2, valid.getBody().getCreated());
+	}
+
+	private ResponseEntity<ItemBulkResultDto> post(Object body, MediaType contentType) {
+		return restTemplate.postForEntity("/items/bulk", new HttpEntity<>(body, headers(contentType)),
+				ItemBulkResultDto.class);
+	}
+
+	private HttpHeaders headers(MediaType contentType) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(contentType);
+		headers.add("X-Sharer-User-Id", String.valueOf(ownerId));
+		return headers;
+	}
+}
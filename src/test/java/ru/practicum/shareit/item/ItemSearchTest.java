@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class ItemSearchTest {
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String marker;
+
+	@BeforeEach
+	void setUp() {
+		marker = "search" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	@Test
+	void itemsOfDeletedUserLeaveTheIndex() {
+		long leaving = user();
+		long staying = user();
+		create(leaving, 0);
+		create(leaving, 1);
+		ItemDto kept = create(staying, 2);
+
+		userService.deleteUser(leaving);
+
+		assertEquals(List.of(kept.getId()), search(0, 1));
+		assertEquals(List.of(kept.getId()), search(0, 10));
+	}
+
+	// Строки, удалённые в обход сервиса, не укорачивают страницы: отсчёт идёт по найденным в БД предметам
+	@Test
+	void pagesStayFullWhenIndexedItemsAreMissingFromDatabase() {
+		long ownerId = user();
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			ids.add(create(ownerId, i).getId());
+		}
+		jdbcTemplate.update("DELETE FROM items WHERE id IN (?, ?)", ids.get(0), ids.get(2));
+
+		assertEquals(List.of(ids.get(1), ids.get(3)), search(0, 2));
+		assertEquals(List.of(ids.get(4), ids.get(5)), search(2, 2));
+		assertEquals(List.of(), search(4, 2));
+	}
+
+	private long user() {
+		return userService.createUser(UserDto.builder().name("owner")
+				.email("owner-" + UUID.randomUUID() + "@example.com").build()).getId();
+	}
+
+	private ItemDto create(long ownerId, int number) {
+		return itemService.createItem(ItemCreateDto.builder().name(marker + " drill " + number)
+				.description("for search").available(true).build(), ownerId);
+	}
+
+	private List<Long> search(int from, int size) {
+		return itemService.searchAvailableItems(marker, from, size).stream().map(ItemDto::getId).toList();
+	}
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class PrometheusMetricsTest {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void serviceRepositoryAndStatementMetricsAreExposed() {
+		UserDto user = userService.createUser(UserDto.builder().name("metrics").email("metrics@example.com").build());
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(user.getId()));
+		restTemplate.exchange("/bookings/owner?state=CURRENT", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+		restTemplate.exchange("/users/" + user.getId(), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+		String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+		assertTrue(scrape.matches("(?s).*shareit_booking_listing_seconds_count\\{[^}]*method=\"getOwnerBookings\""
+				+ "[^}]*state=\"CURRENT\".*"), "таймер списка бронирований с тегом state");
+		assertTrue(scrape.matches("(?s).*shareit_service_seconds_count\\{[^}]*class=\"[^\"]*UserServiceImpl\".*"),
+				"таймер методов UserService");
+		assertTrue(scrape.matches("(?s).*spring_data_repository_invocations_seconds_count\\{[^}]*repository="
+				+ "\"BookingRepository\".*"), "таймеры методов репозиториев");
+		assertTrue(scrape.matches("(?s).*shareit_http_jdbc_statements_count\\{[^}]*uri=\"/bookings/owner\".*"),
+				"число SQL-запросов на HTTP-запрос");
+		assertTrue(scrape.contains("hikaricp_connections_acquire_seconds"), "время ожидания соединения из пула");
+	}
+}
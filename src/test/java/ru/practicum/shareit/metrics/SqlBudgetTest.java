@@ -0,0 +1,59 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "shareit.sql-budget.endpoints.[GET\\ /items]=0")
+class SqlBudgetTest {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private SqlBudgetProperties properties;
+
+	@Test
+	void budgetsAreBoundByMethodAndPattern() {
+		assertEquals(2, properties.budgetFor("GET /bookings/owner"));
+		assertEquals(properties.getDefaultBudget(), properties.budgetFor("DELETE /users/{id}"));
+	}
+
+	@Test
+	void responseCarriesStatementCountWithinBudget() {
+		ResponseEntity<String> response = get("/bookings/owner?state=ALL", createUser("budget-ok@example.com"));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("2", response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+	}
+
+	@Test
+	void exceedingBudgetFailsInTestProfile() {
+		ResponseEntity<String> response = get("/items", createUser("budget-exceeded@example.com"));
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertTrue(response.getBody().contains("GET /items"), response.getBody());
+	}
+
+	private long createUser(String email) {
+		return userService.createUser(UserDto.builder().name("budget").email(email).build()).getId();
+	}
+
+	private ResponseEntity<String> get(String path, long userId) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(userId));
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+}
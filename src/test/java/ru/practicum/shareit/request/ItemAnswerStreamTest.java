@@ -0,0 +1,148 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemAnswerStreamTest {
+	@LocalServerPort
+	private int port;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRequestService itemRequestService;
+	@Autowired
+	private ItemAnswerHub itemAnswerHub;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void requesterReceivesAnswerAfterItemIsCreated() throws Exception {
+		long requesterId = createUser("requester");
+		long ownerId = createUser("owner");
+		long requestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+				.description("нужна стремянка").build(), requesterId).getId();
+
+		HttpResponse<Stream<String>> response = subscribe(requesterId);
+		CompletableFuture<String> data = CompletableFuture.supplyAsync(() -> response.body()
+				.filter(line -> line.startsWith("data:"))
+				.findFirst()
+				.orElseThrow());
+		awaitSubscription(requesterId);
+
+		long itemId = itemService.createItem(ItemCreateDto.builder().name("ladder").description("3 м")
+				.available(true).requestId(requestId).build(), ownerId).getId();
+
+		ItemAnswerDto answer = objectMapper.readValue(data.get(10, TimeUnit.SECONDS).substring("data:".length()),
+				ItemAnswerDto.class);
+		assertEquals(200, response.statusCode());
+		assertEquals(itemId, answer.getId());
+		assertEquals(requestId, answer.getRequestId());
+		assertEquals(ownerId, answer.getOwnerId());
+	}
+
+	@Test
+	void requesterReceivesAnswersFromBulkImport() throws Exception {
+		long requesterId = createUser("requester");
+		long ownerId = createUser("owner");
+		long requestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+				.description("нужны инструменты").build(), requesterId).getId();
+
+		HttpResponse<Stream<String>> response = subscribe(requesterId);
+		CompletableFuture<List<String>> data = CompletableFuture.supplyAsync(() -> response.body()
+				.filter(line -> line.startsWith("data:"))
+				.limit(2)
+				.toList());
+		awaitSubscription(requesterId);
+
+		List<Long> ids = itemService.createItems(List.of(
+				ItemCreateDto.builder().name("saw").description("bulk").available(true).requestId(requestId).build(),
+				ItemCreateDto.builder().name("axe").description("bulk").available(true).build(),
+				ItemCreateDto.builder().name("file").description("bulk").available(true).requestId(requestId).build()),
+				ownerId).getIds();
+
+		List<Long> answered = new ArrayList<>();
+		for (String line : data.get(10, TimeUnit.SECONDS)) {
+			ItemAnswerDto answer = objectMapper.readValue(line.substring("data:".length()), ItemAnswerDto.class);
+			assertEquals(requestId, answer.getRequestId());
+			answered.add(answer.getId());
+		}
+		assertEquals(List.of(ids.get(0), ids.get(2)), answered);
+	}
+
+	@Test
+	void subscriberThatFallsBehindIsDisconnected() throws Exception {
+		ItemAnswerHub hub = new ItemAnswerHub(new SimpleMeterRegistry(), 1, Duration.ofMinutes(1));
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		hub.register(1L, new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				sending.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		hub.publish(1L, ItemAnswerDto.builder().id(1L).build());
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		hub.publish(1L, ItemAnswerDto.builder().id(2L).build());
+		assertEquals(1, hub.subscriberCount(1L));
+		hub.publish(1L, ItemAnswerDto.builder().id(3L).build());
+
+		assertEquals(0, hub.subscriberCount(1L));
+		release.countDown();
+		hub.shutdown();
+	}
+
+	private HttpResponse<Stream<String>> subscribe(long userId) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/requests/stream"))
+				.header("X-Sharer-User-Id", String.valueOf(userId))
+				.timeout(Duration.ofSeconds(10))
+				.build();
+		return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofLines());
+	}
+
+	private void awaitSubscription(long userId) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (itemAnswerHub.subscriberCount(userId) == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private long createUser(String name) {
+		return userService.createUser(UserDto.builder().name(name)
+				.email(name + "-" + UUID.randomUUID() + "@example.com").build()).getId();
+	}
+}
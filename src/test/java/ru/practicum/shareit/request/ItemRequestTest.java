@@ -0,0 +1,122 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.metrics.SqlBudgetAdvice;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemRequestTest {
+	private static final int REQUESTS = 6;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRequestService itemRequestService;
+
+	private long requesterId;
+	private long ownerId;
+	private long readerId;
+
+	@BeforeEach
+	void setUp() {
+		requesterId = createUser("requester");
+		ownerId = createUser("owner");
+		readerId = createUser("reader");
+	}
+
+	@Test
+	void answersForAPageOfRequestsLoadInOneQuery() {
+		List<Long> requestIds = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++) {
+			long requestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+					.description("нужна дрель " + i).build(), requesterId).getId();
+			requestIds.add(requestId);
+			for (int answer = 0; answer < 2; answer++) {
+				itemService.createItem(ItemCreateDto.builder().name("drill " + i + "-" + answer)
+						.description("ответ").available(true).requestId(requestId).build(), ownerId);
+			}
+		}
+
+		ResponseEntity<ItemRequestDto[]> own = get("/requests", requesterId);
+		ResponseEntity<ItemRequestDto[]> page = get("/requests/all?from=0&size=" + REQUESTS, readerId);
+
+		assertEquals(HttpStatus.OK, own.getStatusCode());
+		assertEquals(REQUESTS, own.getBody().length);
+		assertEquals(requestIds.get(REQUESTS - 1), own.getBody()[0].getId());
+		for (ItemRequestDto request : own.getBody()) {
+			assertEquals(2, request.getItems().size());
+			assertEquals(ownerId, request.getItems().get(0).getOwnerId());
+		}
+		assertEquals(HttpStatus.OK, page.getStatusCode());
+		assertEquals(REQUESTS, page.getBody().length);
+		// Проверка пользователя, страница запросов и ответы — без запроса на каждый элемент страницы
+		assertTrue(statements(own) <= 3, "SQL-запросов на свои запросы: " + statements(own));
+		assertTrue(statements(page) <= 3, "SQL-запросов на страницу запросов: " + statements(page));
+	}
+
+	@Test
+	void otherUsersRequestsExcludeOwnAndSingleRequestCarriesAnswers() {
+		long ownRequestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+				.description("свой запрос").build(), readerId).getId();
+		long foreignRequestId = itemRequestService.createRequest(ItemRequestCreateDto.builder()
+				.description("чужой запрос").build(), requesterId).getId();
+		itemService.createItem(ItemCreateDto.builder().name("ladder").description("ответ").available(true)
+				.requestId(foreignRequestId).build(), ownerId);
+
+		List<Long> visible = itemRequestService.getOtherUsersRequests(readerId, 0, 1000).stream()
+				.map(ItemRequestDto::getId)
+				.toList();
+		ResponseEntity<ItemRequestDto> single = restTemplate.exchange("/requests/" + foreignRequestId,
+				HttpMethod.GET, new HttpEntity<>(headers(readerId)), ItemRequestDto.class);
+
+		assertTrue(visible.contains(foreignRequestId));
+		assertFalse(visible.contains(ownRequestId));
+		assertEquals(HttpStatus.OK, single.getStatusCode());
+		assertEquals("ladder", single.getBody().getItems().get(0).getName());
+		assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange("/requests/" + Long.MAX_VALUE, HttpMethod.GET,
+				new HttpEntity<>(headers(readerId)), String.class).getStatusCode());
+	}
+
+	private long createUser(String name) {
+		return userService.createUser(UserDto.builder().name(name)
+				.email(name + "-" + UUID.randomUUID() + "@example.com").build()).getId();
+	}
+
+	private ResponseEntity<ItemRequestDto[]> get(String path, long userId) {
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers(userId)), ItemRequestDto[].class);
+	}
+
+	private static HttpHeaders headers(long userId) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Sharer-User-Id", String.valueOf(userId));
+		return headers;
+	}
+
+	private static int statements(ResponseEntity<?> response) {
+		return Integer.parseInt(response.getHeaders().getFirst(SqlBudgetAdvice.STATEMENT_COUNT_HEADER));
+	}
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.ItemCreateDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class EntityCacheTest {
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void findByIdIsServedFromSecondLevelCache() {
+		UserDto user = userService.createUser(UserDto.builder().name("cached").email("cached@example.com").build());
+		userRepository.findById(user.getId());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		userRepository.findById(user.getId());
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+
+		userService.updateUser(user.getId(), UserUpdateDto.builder().name("renamed").build());
+		assertEquals("renamed", userRepository.findById(user.getId()).orElseThrow().getName());
+
+		userService.deleteUser(user.getId());
+	}
+
+	@Test
+	void deleteUserEvictsCascadedItems() {
+		UserDto owner = userService.createUser(UserDto.builder().name("owner").email("owner-cache@example.com")
+				.build());
+		ItemDto item = itemService.createItem(ItemCreateDto.builder().name("cached item").description("description")
+				.available(true).build(), owner.getId());
+		itemRepository.findById(item.getId());
+
+		userService.deleteUser(owner.getId());
+
+		assertTrue(itemRepository.findById(item.getId()).isEmpty());
+	}
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class UserExistenceCacheTest {
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private BookingService bookingService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void repeatedListingSkipsUserLookup() {
+		UserDto user = userService.createUser(UserDto.builder().name("hot").email("hot-user@example.com").build());
+
+		statistics.clear();
+		bookingService.getUserBookings(user.getId(), BookingState.ALL, PageRequest.of(0, 10));
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		bookingService.getUserBookings(user.getId(), BookingState.ALL, PageRequest.of(0, 10));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		userService.deleteUser(user.getId());
+	}
+
+	@Test
+	void unknownAndDeletedUsersAreRejected() {
+		assertThrows(NoSuchElementException.class,
+				() -> bookingService.getOwnerBookings(-1L, BookingState.ALL, PageRequest.of(0, 10)));
+
+		UserDto user = userService.createUser(UserDto.builder().name("gone").email("gone-user@example.com").build());
+		bookingService.getOwnerBookings(user.getId(), BookingState.ALL, PageRequest.of(0, 10));
+		userService.deleteUser(user.getId());
+
+		assertThrows(NoSuchElementException.class,
+				() -> bookingService.getOwnerBookings(user.getId(), BookingState.ALL, PageRequest.of(0, 10)));
+	}
+}